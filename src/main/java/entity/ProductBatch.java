@@ -0,0 +1,234 @@
+package entity;
+
+import helpers.BrandMatcher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Колоночное представление большого списка товаров.
+ *
+ * Цены хранятся в массиве {@code int[]}, названия кодируются словарём:
+ * каждое уникальное название один раз записывается в общий байтовый буфер (UTF-8),
+ * а строка батча хранит только номер названия в словаре.
+ *
+ * Фильтры по цене и брендам работают по массивам без создания объектов {@link Product};
+ * бренды ищутся через {@link BrandMatcher} один раз на уникальное название.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductBatch {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Цены товаров по строкам батча.
+     */
+    private int[] prices = new int[INITIAL_CAPACITY];
+
+    /**
+     * Номера названий в словаре по строкам батча.
+     */
+    private int[] titleIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Количество строк в батче.
+     */
+    private int size;
+
+    /**
+     * Словарь: название товара -> номер названия.
+     */
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    /**
+     * Общий буфер с байтами всех уникальных названий.
+     */
+    private byte[] arena = new byte[INITIAL_CAPACITY * 32];
+
+    /**
+     * Занятая часть буфера названий.
+     */
+    private int arenaSize;
+
+    /**
+     * Смещения названий в буфере; название i занимает [titleOffsets[i], titleOffsets[i + 1]).
+     */
+    private int[] titleOffsets = new int[INITIAL_CAPACITY + 1];
+
+    /**
+     * Количество уникальных названий в словаре.
+     */
+    private int titleCount;
+
+    /**
+     * Создаёт батч из списка товаров.
+     *
+     * @param products список товаров
+     * @return колоночное представление товаров
+     *
+     * @author Сергей Лужин
+     */
+    public static ProductBatch of(List<Product> products) {
+        ProductBatch batch = new ProductBatch();
+        batch.addAll(products);
+        return batch;
+    }
+
+    /**
+     * Добавляет товары в конец батча.
+     * Позволяет собирать в один батч товары из нескольких категорий с общим словарём названий.
+     *
+     * @param products список товаров
+     *
+     * @author Сергей Лужин
+     */
+    public void addAll(List<Product> products) {
+        for (Product product : products) {
+            add(product.getTitle(), product.getPrice());
+        }
+    }
+
+    /**
+     * Добавляет один товар в конец батча.
+     *
+     * @param title название товара
+     * @param price цена товара
+     *
+     * @author Сергей Лужин
+     */
+    public void add(String title, int price) {
+        if (size == prices.length) {
+            int capacity = size * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            titleIds = Arrays.copyOf(titleIds, capacity);
+        }
+
+        int row = size++;
+        prices[row] = price;
+        titleIds[row] = titleIdOf(title);
+    }
+
+    private int titleIdOf(String title) {
+        Integer existing = dictionary.get(title);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+        }
+        if (titleCount + 1 == titleOffsets.length) {
+            titleOffsets = Arrays.copyOf(titleOffsets, titleCount * 2 + 1);
+        }
+
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize += bytes.length;
+
+        int titleId = titleCount++;
+        titleOffsets[titleCount] = arenaSize;
+        dictionary.put(title, titleId);
+        return titleId;
+    }
+
+    /**
+     * Возвращает количество товаров в батче.
+     *
+     * @return количество строк
+     *
+     * @author Сергей Лужин
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает цену товара в строке.
+     *
+     * @param row номер строки
+     * @return цена товара
+     *
+     * @author Сергей Лужин
+     */
+    public int getPrice(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Возвращает название товара в строке, декодируя его из общего буфера.
+     *
+     * @param row номер строки
+     * @return название товара
+     *
+     * @author Сергей Лужин
+     */
+    public String getTitle(int row) {
+        int titleId = titleIds[row];
+        int start = titleOffsets[titleId];
+        return new String(arena, start, titleOffsets[titleId + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Восстанавливает объект товара из строки батча.
+     * Используется только для вывода сообщений о найденных нарушениях.
+     *
+     * @param row номер строки
+     * @return товар
+     *
+     * @author Сергей Лужин
+     */
+    public Product toProduct(int row) {
+        return new Product(getTitle(row), prices[row]);
+    }
+
+    /**
+     * Возвращает строки, цена в которых выходит за пределы диапазона.
+     *
+     * @param minPrice минимальная допустимая цена
+     * @param maxPrice максимальная допустимая цена
+     * @return номера строк с ценой вне диапазона
+     *
+     * @author Сергей Лужин
+     */
+    public int[] rowsWithPriceOutside(int minPrice, int maxPrice) {
+        int[] rows = new int[size];
+        int found = 0;
+        for (int row = 0; row < size; row++) {
+            int price = prices[row];
+            if (price < minPrice || price > maxPrice) {
+                rows[found++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+
+    /**
+     * Возвращает строки с непустым названием, в котором нет ни одного из брендов.
+     * Проверка выполняется один раз на уникальное название, а не на каждую строку.
+     *
+     * @param brandMatcher автомат поиска брендов
+     * @return номера строк, не соответствующих брендам
+     *
+     * @author Сергей Лужин
+     */
+    public int[] rowsWithoutBrand(BrandMatcher brandMatcher) {
+        boolean[] titleMismatches = new boolean[titleCount];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            String title = entry.getKey();
+            titleMismatches[entry.getValue()] = !title.isEmpty() && !brandMatcher.matches(title);
+        }
+
+        int[] rows = new int[size];
+        int found = 0;
+        for (int row = 0; row < size; row++) {
+            if (titleMismatches[titleIds[row]]) {
+                rows[found++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, found);
+    }
+}
@@ -0,0 +1,107 @@
+package entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Снимок списка товаров, собранных за один запуск теста.
+ * Хранит ключ выборки (категория, фильтры), время сохранения
+ * и товары в том порядке, в котором они были собраны со страницы.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductSnapshot {
+    /**
+     * Ключ выборки: категория, подкатегория и фильтры.
+     */
+    private final String key;
+
+    /**
+     * Время сохранения снимка в миллисекундах с начала эпохи.
+     */
+    private final long timestamp;
+
+    /**
+     * Товары снимка в порядке их появления на странице.
+     */
+    private final List<Product> products;
+
+    /**
+     * Создаёт снимок товаров.
+     *
+     * @param key       ключ выборки
+     * @param timestamp время сохранения снимка
+     * @param products  товары снимка
+     *
+     * @author Сергей Лужин
+     */
+    public ProductSnapshot(String key, long timestamp, List<Product> products) {
+        this.key = key;
+        this.timestamp = timestamp;
+        this.products = Collections.unmodifiableList(new ArrayList<>(products));
+    }
+
+    /**
+     * Возвращает ключ выборки.
+     *
+     * @return ключ выборки
+     *
+     * @author Сергей Лужин
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Возвращает время сохранения снимка.
+     *
+     * @return время в миллисекундах с начала эпохи
+     *
+     * @author Сергей Лужин
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Возвращает товары снимка.
+     *
+     * @return неизменяемый список товаров
+     *
+     * @author Сергей Лужин
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Проверяет, совпадает ли начало текущей выдачи с началом снимка.
+     * Задел для инкрементального режима: если первые {@code headSize} товаров
+     * не изменились, выдачу можно не досматривать до конца. Пока нигде не вызывается.
+     *
+     * @param collected товары, уже собранные со страницы
+     * @param headSize  количество товаров, которые должны совпасть
+     * @return true, если собрано не меньше {@code headSize} товаров и они совпадают со снимком
+     *
+     * @author Сергей Лужин
+     */
+    public boolean headMatches(List<Product> collected, int headSize) {
+        if (headSize <= 0 || collected.size() < headSize || products.size() < headSize) {
+            return false;
+        }
+        return collected.subList(0, headSize).equals(products.subList(0, headSize));
+    }
+
+    /**
+     * Сравнивает текущий список товаров с этим снимком.
+     *
+     * @param current товары текущего запуска
+     * @return разница между снимком и текущим списком
+     *
+     * @author Сергей Лужин
+     */
+    public ProductSnapshotDiff diff(List<Product> current) {
+        return ProductSnapshotDiff.between(products, current);
+    }
+}
@@ -0,0 +1,188 @@
+package entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разница между двумя списками товаров одной выборки:
+ * новые, пропавшие и изменившие цену товары.
+ * Товары сопоставляются по названию.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductSnapshotDiff {
+    /**
+     * Товары, которых не было в предыдущем снимке.
+     */
+    private final List<Product> added;
+
+    /**
+     * Товары предыдущего снимка, пропавшие из выдачи.
+     */
+    private final List<Product> removed;
+
+    /**
+     * Товары, у которых изменилась цена.
+     */
+    private final List<Repricing> repriced;
+
+    private ProductSnapshotDiff(List<Product> added, List<Product> removed, List<Repricing> repriced) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.repriced = Collections.unmodifiableList(repriced);
+    }
+
+    /**
+     * Вычисляет разницу между предыдущим и текущим списками товаров за линейное время.
+     *
+     * @param previous товары предыдущего запуска
+     * @param current  товары текущего запуска
+     * @return разница между списками
+     *
+     * @author Сергей Лужин
+     */
+    public static ProductSnapshotDiff between(List<Product> previous, List<Product> current) {
+        Map<String, Product> previousByTitle = indexByTitle(previous);
+        Map<String, Product> currentByTitle = indexByTitle(current);
+
+        List<Product> added = new ArrayList<>();
+        List<Repricing> repriced = new ArrayList<>();
+        for (Product product : currentByTitle.values()) {
+            Product old = previousByTitle.get(product.getTitle());
+            if (old == null) {
+                added.add(product);
+            }
+            else if (old.getPrice() != product.getPrice()) {
+                repriced.add(new Repricing(product.getTitle(), old.getPrice(), product.getPrice()));
+            }
+        }
+
+        List<Product> removed = new ArrayList<>();
+        for (Product product : previousByTitle.values()) {
+            if (!currentByTitle.containsKey(product.getTitle())) {
+                removed.add(product);
+            }
+        }
+
+        return new ProductSnapshotDiff(added, removed, repriced);
+    }
+
+    private static Map<String, Product> indexByTitle(List<Product> products) {
+        Map<String, Product> byTitle = new LinkedHashMap<>();
+        for (Product product : products) {
+            byTitle.putIfAbsent(product.getTitle(), product);
+        }
+        return byTitle;
+    }
+
+    /**
+     * Возвращает новые товары.
+     *
+     * @return товары, которых не было в предыдущем снимке
+     *
+     * @author Сергей Лужин
+     */
+    public List<Product> getAdded() {
+        return added;
+    }
+
+    /**
+     * Возвращает пропавшие товары.
+     *
+     * @return товары предыдущего снимка, отсутствующие в текущем
+     *
+     * @author Сергей Лужин
+     */
+    public List<Product> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Возвращает товары с изменившейся ценой.
+     *
+     * @return список изменений цен
+     *
+     * @author Сергей Лужин
+     */
+    public List<Repricing> getRepriced() {
+        return repriced;
+    }
+
+    /**
+     * Проверяет, что выборка не изменилась.
+     *
+     * @return true, если нет ни новых, ни пропавших, ни переоценённых товаров
+     *
+     * @author Сергей Лужин
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && repriced.isEmpty();
+    }
+
+    /**
+     * Возвращает человекочитаемый отчёт об изменениях.
+     *
+     * @return отчёт с перечислением новых, пропавших и переоценённых товаров
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("Новые товары (").append(added.size()).append("):\n");
+        added.forEach(product -> report.append("  + ").append(product).append('\n'));
+        report.append("Пропавшие товары (").append(removed.size()).append("):\n");
+        removed.forEach(product -> report.append("  - ").append(product).append('\n'));
+        report.append("Изменилась цена (").append(repriced.size()).append("):\n");
+        repriced.forEach(change -> report.append("  * ").append(change).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Изменение цены одного товара между запусками.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Repricing {
+        /**
+         * Название товара.
+         */
+        private final String title;
+
+        /**
+         * Цена товара в предыдущем снимке.
+         */
+        private final int oldPrice;
+
+        /**
+         * Цена товара в текущем запуске.
+         */
+        private final int newPrice;
+
+        Repricing(String title, int oldPrice, int newPrice) {
+            this.title = title;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getOldPrice() {
+            return oldPrice;
+        }
+
+        public int getNewPrice() {
+            return newPrice;
+        }
+
+        @Override
+        public String toString() {
+            return title + ": " + oldPrice + " -> " + newPrice + " рублей";
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Обслуживание каталога allure-results между запусками.
+ *
+ * Для каждого теста (по historyId) оставляет последние {@code allure.retention.results.per.test}
+ * результатов, не старше {@code allure.retention.days} дней. Результаты, не прошедшие отбор,
+ * удаляются вместе с контейнерами, у которых не осталось детей, а их вложения
+ * упаковываются в один zip-архив с индексом index.csv в {@code allure.archive.dir}.
+ * Вложения, на которые не ссылается ни один результат, тоже уходят в архив.
+ * Каталог history и служебные файлы (executor.json, environment.properties и т.п.)
+ * не трогаются, поэтому графики трендов в отчёте сохраняются.
+ *
+ * Запускается Maven-профилем {@code allure-compact} перед генерацией отчёта.
+ *
+ * @author Сергей Лужин
+ */
+public class AllureResultsManager {
+
+    private static final String RESULT_SUFFIX = "-result.json";
+    private static final String CONTAINER_SUFFIX = "-container.json";
+    private static final String ATTACHMENT_MARKER = "-attachment";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Каталог с результатами Allure.
+     */
+    private final Path resultsDir;
+
+    /**
+     * Каталог для архивов вложений.
+     */
+    private final Path archiveDir;
+
+    /**
+     * Создаёт менеджер для каталога результатов.
+     *
+     * @param resultsDir каталог с результатами Allure
+     * @param archiveDir каталог для архивов вложений
+     *
+     * @author Сергей Лужин
+     */
+    public AllureResultsManager(Path resultsDir, Path archiveDir) {
+        this.resultsDir = resultsDir;
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Точка входа для запуска из Maven-профиля {@code allure-compact}.
+     *
+     * @param args не используются; настройки берутся из test.properties
+     *
+     * @author Сергей Лужин
+     */
+    public static void main(String[] args) {
+        new AllureResultsManager(
+                Paths.get(testProperties.allureResultsDir()),
+                Paths.get(testProperties.allureArchiveDir())
+        ).compact(testProperties.allureRetentionResultsPerTest(), testProperties.allureRetentionDays());
+    }
+
+    /**
+     * Удаляет устаревшие результаты и упаковывает их вложения в архив.
+     *
+     * @param resultsPerTest сколько последних результатов оставлять для каждого теста
+     * @param retentionDays  максимальный возраст результата в днях
+     *
+     * @author Сергей Лужин
+     */
+    public void compact(int resultsPerTest, int retentionDays) {
+        if (!Files.isDirectory(resultsDir)) {
+            System.out.println("[ALLURE] Каталог " + resultsDir + " не найден, обслуживать нечего");
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        long sizeBefore = directorySize(resultsDir);
+
+        List<ResultFile> results = new ArrayList<>();
+        List<Path> containers = new ArrayList<>();
+        Set<String> attachments = new HashSet<>();
+        for (Path file : list(resultsDir)) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(RESULT_SUFFIX)) {
+                results.add(readResult(file));
+            }
+            else if (name.endsWith(CONTAINER_SUFFIX)) {
+                containers.add(file);
+            }
+            else if (name.contains(ATTACHMENT_MARKER)) {
+                attachments.add(name);
+            }
+        }
+
+        // Отбираем результаты, которые остаются в отчёте
+        long oldestAllowed = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        Map<String, List<ResultFile>> byTest = new HashMap<>();
+        for (ResultFile result : results) {
+            byTest.computeIfAbsent(result.historyId, k -> new ArrayList<>()).add(result);
+        }
+        Set<String> keptUuids = new HashSet<>();
+        Set<String> keptAttachments = new HashSet<>();
+        List<ResultFile> pruned = new ArrayList<>();
+        for (List<ResultFile> testResults : byTest.values()) {
+            testResults.sort(Comparator.comparingLong((ResultFile r) -> r.stop).reversed());
+            for (int i = 0; i < testResults.size(); i++) {
+                ResultFile result = testResults.get(i);
+                if (i < resultsPerTest && result.stop >= oldestAllowed) {
+                    keptUuids.add(result.uuid);
+                    keptAttachments.addAll(result.attachments);
+                }
+                else {
+                    pruned.add(result);
+                }
+            }
+        }
+
+        List<Path> prunedContainers = new ArrayList<>();
+        for (Path container : containers) {
+            JsonNode node = readJson(container);
+            boolean hasKeptChild = false;
+            for (JsonNode child : node.path("children")) {
+                hasKeptChild |= keptUuids.contains(child.asText());
+            }
+            if (hasKeptChild) {
+                collectAttachments(node, keptAttachments);
+            }
+            else {
+                prunedContainers.add(container);
+            }
+        }
+
+        // Упаковываем в архив все вложения, на которые не ссылаются оставшиеся результаты
+        Map<String, String> archivedAttachments = new LinkedHashMap<>();
+        for (ResultFile result : pruned) {
+            for (String attachment : result.attachments) {
+                if (attachments.contains(attachment) && !keptAttachments.contains(attachment)) {
+                    archivedAttachments.put(attachment, result.uuid + ";" + result.stop + ";" + result.name.replace(';', ','));
+                }
+            }
+        }
+        for (String attachment : attachments) {
+            if (!keptAttachments.contains(attachment)) {
+                archivedAttachments.putIfAbsent(attachment, ";;");
+            }
+        }
+
+        if (!archivedAttachments.isEmpty()) {
+            writeArchive(archivedAttachments);
+        }
+
+        delete(archivedAttachments.keySet().stream().map(resultsDir::resolve));
+        delete(pruned.stream().map(result -> result.file));
+        delete(prunedContainers.stream());
+
+        System.out.println("[ALLURE] Результатов оставлено: " + keptUuids.size() + ", удалено: " + pruned.size()
+                + ", контейнеров удалено: " + prunedContainers.size()
+                + ", вложений в архиве: " + archivedAttachments.size());
+        System.out.println("[ALLURE] Размер " + resultsDir + ": " + sizeBefore / 1024 + " КБ -> " + directorySize(resultsDir) / 1024
+                + " КБ за " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " мс");
+    }
+
+    private void writeArchive(Map<String, String> archivedAttachments) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path archive = archiveDir.resolve("attachments-" + timestamp + ".zip");
+        StringBuilder index = new StringBuilder("attachment;resultUuid;resultStop;testName\n");
+
+        try {
+            Files.createDirectories(archiveDir);
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+                for (Map.Entry<String, String> attachment : archivedAttachments.entrySet()) {
+                    zip.putNextEntry(new ZipEntry(attachment.getKey()));
+                    Files.copy(resultsDir.resolve(attachment.getKey()), zip);
+                    zip.closeEntry();
+                    index.append(attachment.getKey()).append(';').append(attachment.getValue()).append('\n');
+                }
+                zip.putNextEntry(new ZipEntry("index.csv"));
+                zip.write(index.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать архив вложений " + archive, e);
+        }
+        System.out.println("[ALLURE] Вложения упакованы в " + archive);
+    }
+
+    private ResultFile readResult(Path file) {
+        JsonNode node = readJson(file);
+        ResultFile result = new ResultFile();
+        result.file = file;
+        result.uuid = node.path("uuid").asText();
+        result.historyId = node.path("historyId").asText(result.uuid);
+        result.name = node.path("name").asText();
+        result.stop = node.path("stop").asLong(0);
+        collectAttachments(node, result.attachments);
+        return result;
+    }
+
+    /**
+     * Рекурсивно собирает имена файлов вложений результата, его шагов и фикстур.
+     */
+    private static void collectAttachments(JsonNode node, Set<String> sources) {
+        for (JsonNode attachment : node.path("attachments")) {
+            sources.add(attachment.path("source").asText());
+        }
+        for (String nested : new String[]{"steps", "befores", "afters"}) {
+            for (JsonNode child : node.path(nested)) {
+                collectAttachments(child, sources);
+            }
+        }
+    }
+
+    private JsonNode readJson(Path file) {
+        try {
+            return mapper.readTree(file.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать " + file, e);
+        }
+    }
+
+    private static List<Path> list(Path dir) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать каталог " + dir, e);
+        }
+        return files;
+    }
+
+    private static void delete(Stream<Path> files) {
+        files.forEach(file -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось удалить " + file, e);
+            }
+        });
+    }
+
+    private static long directorySize(Path dir) {
+        long size = 0;
+        for (Path file : list(dir)) {
+            try {
+                size += Files.size(file);
+            } catch (IOException ignored) {}
+        }
+        return size;
+    }
+
+    /**
+     * Сведения об одном файле результата теста.
+     */
+    private static class ResultFile {
+        private Path file;
+        private String uuid;
+        private String historyId;
+        private String name;
+        private long stop;
+        private final Set<String> attachments = new HashSet<>();
+    }
+}
@@ -3,12 +3,16 @@ package helpers;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
 
+import static helpers.DomSnapshoter.attachDomSnapshot;
+import static helpers.Properties.testProperties;
 import static helpers.Screenshoter.attachScreenshot;
 
 /**
- * Слушатель событий WebDriver для автоматического снятия скриншотов
+ * Слушатель событий WebDriver для автоматического снятия скриншотов и снимков DOM
  * и прикрепления их к отчёту Allure при ключевых действиях:
  * клике по элементу, вводе текста, навигации и возникновении исключений.
+ * Что именно снимать для каждого события, задаётся в test.properties
+ * ключами {@code capture.*} (см. {@link CaptureMode}).
  *
  * @author Сергей Лужин
  */
@@ -16,7 +20,7 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
 
     /**
      * Вызывается после клика по элементу.
-     * Делает скриншот страницы и прикрепляет его к отчёту Allure.
+     * Фиксирует состояние страницы согласно {@code capture.click}.
      *
      * @param element элемент, по которому был выполнен клик
      *
@@ -24,12 +28,12 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
      */
     @Override
     public void afterClickOn(WebElement element, WebDriver driver) {
-        attachScreenshot("Клик");
+        capture(testProperties.captureClick(), "Клик");
     }
 
     /**
      * Вызывается после изменения значения элемента (ввода текста через sendKeys).
-     * Делает скриншот страницы и прикрепляет его к отчёту Allure.
+     * Фиксирует состояние страницы согласно {@code capture.change.value}.
      *
      * @param element элемент, значение которого изменилось
      * @param keys    последовательность символов, переданная в элемент
@@ -38,7 +42,7 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
      */
     @Override
     public void afterChangeValueOf(WebElement element, WebDriver driver, CharSequence[] keys) {
-        attachScreenshot(String.format("Набор текста: %s", (Object) keys));
+        capture(testProperties.captureChangeValue(), String.format("Набор текста: %s", (Object) keys));
     }
 
     // Поиск элемента
@@ -49,7 +53,8 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
 
     /**
      * Вызывается после перехода по указанному URL.
-     * Делает скриншот сразу после завершения навигации.
+     * Фиксирует состояние страницы согласно {@code capture.navigate}
+     * и снимает метрики загрузки страницы {@link WebPerformanceCollector}.
      *
      * @param url    адрес, на который был выполнен переход
      *
@@ -57,12 +62,13 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
      */
     @Override
     public void afterNavigateTo(String url, WebDriver driver) {
-        attachScreenshot("Перереход по: " + url);
+        capture(testProperties.captureNavigate(), "Перереход по: " + url);
+        WebPerformanceCollector.collect("Переход по: " + url);
     }
 
     /**
      * Вызывается при возникновении исключения во время работы WebDriver.
-     * Делает скриншот страницы на момент ошибки и прикрепляет его к отчёту Allure.
+     * Фиксирует состояние страницы на момент ошибки согласно {@code capture.exception}.
      *
      * @param throwable возникшее исключение
      *
@@ -70,6 +76,24 @@ public class AllureScreenshotListener extends AbstractWebDriverEventListener {
      */
     @Override
     public void onException(Throwable throwable, WebDriver driver) {
-        attachScreenshot("Ошибка: " + throwable);
+        capture(testProperties.captureException(), "Ошибка: " + throwable);
+    }
+
+    /**
+     * Прикладывает к отчёту Allure скриншот и/или снимок DOM в соответствии с режимом.
+     * Скриншот пропускается, если драйвер их не поддерживает.
+     *
+     * @param mode режим фиксации состояния страницы
+     * @param name название вложения
+     *
+     * @author Сергей Лужин
+     */
+    private static void capture(CaptureMode mode, String name) {
+        if (mode.withScreenshot() && Driver.supportsScreenshots()) {
+            attachScreenshot(name);
+        }
+        if (mode.withDom()) {
+            attachDomSnapshot(name);
+        }
     }
 }
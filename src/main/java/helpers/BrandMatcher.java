@@ -0,0 +1,239 @@
+package helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Поиск брендов в названиях товаров на основе автомата Ахо–Корасик.
+ *
+ * Автомат строится один раз по списку брендов и затем проверяет название
+ * за один проход по его символам, независимо от количества брендов.
+ * Регистр символов приводится к единому виду как для латиницы, так и для кириллицы,
+ * поэтому отдельные вызовы {@code toLowerCase()} для названий и брендов не нужны.
+ *
+ * Переходы хранятся в массивах примитивов: переходы каждого состояния отсортированы по символу
+ * и ищутся двоичным поиском, так что проверка названия не создаёт объектов.
+ * Пустой бренд, как и {@code contains("")}, встречается в любом названии, в том числе пустом.
+ *
+ * @author Сергей Лужин
+ */
+public class BrandMatcher {
+
+    /**
+     * Список брендов в исходном виде, в порядке передачи.
+     */
+    private final List<String> brands;
+
+    /**
+     * Номер первого пустого бренда или -1.
+     */
+    private final int emptyBrandIndex;
+
+    /**
+     * Начала переходов состояний: переходы состояния i занимают [edgeStart[i], edgeStart[i + 1])
+     * в {@link #edgeChars} и {@link #edgeTargets}.
+     */
+    private final int[] edgeStart;
+
+    /**
+     * Символы переходов, по возрастанию внутри каждого состояния.
+     */
+    private final char[] edgeChars;
+
+    /**
+     * Состояния, в которые ведут переходы.
+     */
+    private final int[] edgeTargets;
+
+    /**
+     * Суффиксные ссылки состояний.
+     */
+    private final int[] failLinks;
+
+    /**
+     * Номер бренда, который заканчивается в состоянии (с учётом суффиксных ссылок), или -1.
+     */
+    private final int[] outputs;
+
+    /**
+     * Строит автомат по списку брендов.
+     *
+     * @param brands список брендов
+     *
+     * @author Сергей Лужин
+     */
+    public BrandMatcher(List<String> brands) {
+        this.brands = Collections.unmodifiableList(new ArrayList<>(brands));
+
+        // Дерево брендов строится на картах и затем переносится в массивы
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> brandEnds = new ArrayList<>();
+        children.add(new TreeMap<>());
+        brandEnds.add(-1);
+        int empty = -1;
+        for (int brandIndex = 0; brandIndex < this.brands.size(); brandIndex++) {
+            String brand = this.brands.get(brandIndex);
+            if (brand.isEmpty()) {
+                empty = empty < 0 ? brandIndex : empty;
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < brand.length(); i++) {
+                Integer next = children.get(state).get(fold(brand.charAt(i)));
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(fold(brand.charAt(i)), next);
+                    children.add(new TreeMap<>());
+                    brandEnds.add(-1);
+                }
+                state = next;
+            }
+            if (brandEnds.get(state) < 0) {
+                brandEnds.set(state, brandIndex);
+            }
+        }
+        this.emptyBrandIndex = empty;
+
+        int stateCount = children.size();
+        this.edgeStart = new int[stateCount + 1];
+        this.edgeChars = new char[stateCount - 1];
+        this.edgeTargets = new int[stateCount - 1];
+        this.outputs = new int[stateCount];
+        int edge = 0;
+        for (int state = 0; state < stateCount; state++) {
+            edgeStart[state] = edge;
+            for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+                edgeChars[edge] = child.getKey();
+                edgeTargets[edge] = child.getValue();
+                edge++;
+            }
+            outputs[state] = brandEnds.get(state);
+        }
+        edgeStart[stateCount] = edge;
+
+        this.failLinks = new int[stateCount];
+        buildFailLinks();
+    }
+
+    /**
+     * Создаёт автомат по списку брендов.
+     *
+     * @param brands список брендов
+     * @return готовый к использованию автомат
+     *
+     * @author Сергей Лужин
+     */
+    public static BrandMatcher of(List<String> brands) {
+        return new BrandMatcher(brands);
+    }
+
+    /**
+     * Возвращает бренд, первым встретившийся в названии.
+     * Пустой бренд встречается в самом начале любого названия.
+     *
+     * @param title название товара
+     * @return найденный бренд в исходном написании или null, если ни один бренд не найден
+     *
+     * @author Сергей Лужин
+     */
+    public String findBrand(CharSequence title) {
+        if (emptyBrandIndex >= 0) {
+            return brands.get(emptyBrandIndex);
+        }
+        int state = 0;
+        for (int i = 0; i < title.length(); i++) {
+            state = step(state, fold(title.charAt(i)));
+            int brandIndex = outputs[state];
+            if (brandIndex >= 0) {
+                return brands.get(brandIndex);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, содержит ли название хотя бы один из брендов.
+     *
+     * @param title название товара
+     * @return true, если в названии найден бренд
+     *
+     * @author Сергей Лужин
+     */
+    public boolean matches(CharSequence title) {
+        return findBrand(title) != null;
+    }
+
+    /**
+     * Возвращает список брендов, по которому построен автомат.
+     *
+     * @return неизменяемый список брендов
+     *
+     * @author Сергей Лужин
+     */
+    public List<String> getBrands() {
+        return brands;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = transition(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failLinks[state];
+        }
+    }
+
+    private int transition(int state, char c) {
+        int edge = Arrays.binarySearch(edgeChars, edgeStart[state], edgeStart[state + 1], c);
+        return edge >= 0 ? edgeTargets[edge] : -1;
+    }
+
+    private void buildFailLinks() {
+        // Обход в ширину: суффиксная ссылка состояния строится по ссылке его родителя
+        int[] queue = new int[failLinks.length];
+        int head = 0;
+        int tail = 0;
+        for (int edge = edgeStart[0]; edge < edgeStart[1]; edge++) {
+            queue[tail++] = edgeTargets[edge];
+        }
+
+        while (head < tail) {
+            int state = queue[head++];
+            for (int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+                char c = edgeChars[edge];
+                int target = edgeTargets[edge];
+
+                int fail = failLinks[state];
+                int next = transition(fail, c);
+                while (next < 0 && fail != 0) {
+                    fail = failLinks[fail];
+                    next = transition(fail, c);
+                }
+                int failTarget = next < 0 ? 0 : next;
+                failLinks[target] = failTarget;
+
+                if (outputs[target] < 0) {
+                    outputs[target] = outputs[failTarget];
+                }
+                queue[tail++] = target;
+            }
+        }
+    }
+
+    /**
+     * Приводит символ к единому регистру.
+     * Двойное преобразование учитывает символы, у которых
+     * строчная и заглавная формы не переходят друг в друга напрямую.
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,39 @@
+package helpers;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder для снятия вложения отчёта: скриншота или снимка DOM.
+ *
+ * @author Сергей Лужин
+ */
+@Name("yandexmarket.Capture")
+@Label("Вложение")
+@Category({"Yandex Market", "Вложения"})
+@Description("Снятие скриншота или снимка DOM для отчёта Allure")
+public class CaptureJfrEvent extends Event {
+
+    /**
+     * Вид вложения с типом файла, например "PNG (image/png)" или "DOM (text/html)".
+     */
+    @Label("Вид")
+    public String kind;
+
+    /**
+     * Название вложения в отчёте.
+     */
+    @Label("Название")
+    public String name;
+
+    /**
+     * Размер вложения.
+     */
+    @Label("Размер")
+    @DataAmount
+    public long size;
+}
@@ -0,0 +1,51 @@
+package helpers;
+
+/**
+ * Режим фиксации состояния страницы для отчёта Allure
+ * при событиях {@link AllureScreenshotListener}.
+ *
+ * @author Сергей Лужин
+ */
+public enum CaptureMode {
+    /**
+     * Ничего не прикладывать.
+     */
+    NONE,
+
+    /**
+     * Прикладывать скриншот в формате PNG.
+     */
+    SCREENSHOT,
+
+    /**
+     * Прикладывать снимок DOM несжатым файлом text/html.
+     */
+    DOM,
+
+    /**
+     * Прикладывать и скриншот, и снимок DOM.
+     */
+    BOTH;
+
+    /**
+     * Проверяет, нужно ли снимать скриншот.
+     *
+     * @return true для режимов SCREENSHOT и BOTH
+     *
+     * @author Сергей Лужин
+     */
+    public boolean withScreenshot() {
+        return this == SCREENSHOT || this == BOTH;
+    }
+
+    /**
+     * Проверяет, нужно ли снимать DOM.
+     *
+     * @return true для режимов DOM и BOTH
+     *
+     * @author Сергей Лужин
+     */
+    public boolean withDom() {
+        return this == DOM || this == BOTH;
+    }
+}
@@ -0,0 +1,71 @@
+package helpers;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика снятия скриншотов и снимков DOM:
+ * количество, суммарное время и суммарный размер вложений по каждому виду.
+ * Позволяет сравнить стоимость PNG-скриншотов и снимков DOM.
+ * Размер снимка DOM учитывается таким, каким он прикладывается к отчёту, — несжатым text/html;
+ * сжимаются вложения только при упаковке в архив {@link AllureResultsManager}.
+ *
+ * @author Сергей Лужин
+ */
+public class CaptureStatistics {
+
+    /**
+     * Накопленная статистика по видам вложений.
+     */
+    private static final Map<String, long[]> STATISTICS = new ConcurrentHashMap<>();
+
+    /**
+     * Учитывает одно снятое вложение.
+     *
+     * @param kind       вид вложения с типом файла, например "PNG (image/png)" или "DOM (text/html)"
+     * @param startNanos время начала снятия, полученное из {@link System#nanoTime()}
+     * @param bytes      размер вложения в байтах
+     *
+     * @author Сергей Лужин
+     */
+    public static void record(String kind, long startNanos, long bytes) {
+        long elapsed = System.nanoTime() - startNanos;
+        long[] stats = STATISTICS.computeIfAbsent(kind, k -> new long[3]);
+        synchronized (stats) {
+            stats[0]++;
+            stats[1] += elapsed;
+            stats[2] += bytes;
+        }
+    }
+
+    /**
+     * Возвращает отчёт со средним временем и размером вложений каждого вида.
+     *
+     * @return отчёт о вложениях
+     *
+     * @author Сергей Лужин
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("[CAPTURE] Статистика вложений (размер до упаковки в архив):\n");
+        new TreeMap<>(STATISTICS).forEach((kind, stats) -> {
+            synchronized (stats) {
+                long count = Math.max(1, stats[0]);
+                report.append("  ").append(kind).append(": ").append(stats[0]).append(" шт., в среднем ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(stats[1] / count)).append(" мс и ")
+                        .append(stats[2] / count / 1024).append(" КБ\n");
+            }
+        });
+        return report.toString();
+    }
+
+    /**
+     * Очищает накопленную статистику.
+     *
+     * @author Сергей Лужин
+     */
+    public static void reset() {
+        STATISTICS.clear();
+    }
+}
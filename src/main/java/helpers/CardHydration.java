@@ -0,0 +1,163 @@
+package helpers;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static helpers.Properties.testProperties;
+import static helpers.Properties.xpathProperties;
+
+/**
+ * Утилитный класс для ожидания прогрузки карточек товаров, которые сначала
+ * отрисовываются пустыми заготовками (skeleton) и заполняются позже.
+ *
+ * Вместо ожидания заголовка и цены каждой карточки по отдельности
+ * ждёт сразу все карточки в видимой области одной проверкой в браузере.
+ *
+ * @author Сергей Лужин
+ */
+public class CardHydration {
+
+    /**
+     * Скрипт проверки карточек в видимой области.
+     * Получает только ещё не проверенные карточки и номер первой из них в выдаче.
+     * Заголовок и цена ищутся по вариантам цепочки {@link LocatorChain} в порядке опроса.
+     * Возвращает номер последней проверенной карточки и номера карточек без заголовка или цены в выдаче.
+     */
+    private static final String HYDRATION_SCRIPT =
+            "var cards = arguments[0], from = arguments[1], titleXpaths = arguments[2], priceXpaths = arguments[3];" +
+            "var viewportHeight = window.innerHeight, last = from - 1, pending = [];" +
+            "function text(card, xpaths) {" +
+            "  for (var x = 0; x < xpaths.length; x++) {" +
+            "    var node = document.evaluate(xpaths[x], card, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+            "    if (node) return node.textContent.trim();" +
+            "  }" +
+            "  return '';" +
+            "}" +
+            "for (var i = 0; i < cards.length; i++) {" +
+            "  var rect = cards[i].getBoundingClientRect();" +
+            "  if (rect.top >= viewportHeight) break;" +
+            "  if (rect.bottom <= 0) continue;" +
+            "  last = from + i;" +
+            "  if (!text(cards[i], titleXpaths) || !text(cards[i], priceXpaths)) pending.push(from + i);" +
+            "}" +
+            "return [last].concat(pending);";
+
+    /**
+     * Результат ожидания пачки карточек.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Batch {
+
+        private final int lastIndex;
+        private final List<Integer> unhydrated;
+
+        Batch(int lastIndex, List<Integer> unhydrated) {
+            this.lastIndex = lastIndex;
+            this.unhydrated = unhydrated;
+        }
+
+        /**
+         * Возвращает номер последней карточки, попавшей в проверенную пачку.
+         *
+         * @return номер карточки или {@code from - 1}, если в видимой области карточек не было
+         *
+         * @author Сергей Лужин
+         */
+        public int getLastIndex() {
+            return lastIndex;
+        }
+
+        /**
+         * Возвращает номера карточек, которые так и не получили заголовок или цену.
+         *
+         * @return номера непрогрузившихся карточек
+         *
+         * @author Сергей Лужин
+         */
+        public List<Integer> getUnhydrated() {
+            return unhydrated;
+        }
+    }
+
+    /**
+     * Ждёт, пока у всех карточек в видимой области, начиная с {@code from},
+     * появятся непустые заголовок и цена. Ожидание одно на всю пачку
+     * и ограничено {@code card.hydration.timeout.ms}; карточки, не прогрузившиеся
+     * за это время, выводятся одним сообщением.
+     *
+     * @param js     экземпляр {@link JavascriptExecutor}, через который выполняется проверка
+     * @param waiter механизм ожиданий страницы
+     * @param cards  все найденные карточки товаров
+     * @param from   номер первой карточки пачки
+     * @return результат ожидания пачки
+     *
+     * @author Сергей Лужин
+     */
+    public static Batch awaitViewportHydration(JavascriptExecutor js, Waiter waiter, List<WebElement> cards, int from) {
+        return awaitViewportHydration(js, waiter, cards, from, testProperties.cardHydrationTimeoutMs());
+    }
+
+    /**
+     * Ждёт прогрузки карточек в видимой области, начиная с {@code from}, в течение указанного времени.
+     * В браузер передаются только карточки начиная с {@code from}: уже проверенные карточки
+     * не сериализуются заново на каждом опросе.
+     *
+     * @param js        экземпляр {@link JavascriptExecutor}, через который выполняется проверка
+     * @param waiter    механизм ожиданий страницы
+     * @param cards     все найденные карточки товаров
+     * @param from      номер первой карточки пачки
+     * @param timeoutMs время ожидания в миллисекундах
+     * @return результат ожидания пачки
+     *
+     * @author Сергей Лужин
+     */
+    static Batch awaitViewportHydration(JavascriptExecutor js, Waiter waiter, List<WebElement> cards, int from, long timeoutMs) {
+        List<WebElement> unchecked = cards.subList(Math.min(from, cards.size()), cards.size());
+        List<Long> lastState = new ArrayList<>();
+        try {
+            waiter.until("Карточки в видимой области прогрузились", d -> {
+                List<Long> state = check(js, unchecked, from);
+                lastState.clear();
+                lastState.addAll(state);
+                return state.size() == 1 ? true : null;
+            }, timeoutMs);
+        } catch (TimeoutException e) {
+            if (lastState.isEmpty()) {
+                System.out.println("[WAIT] Не удалось проверить прогрузку карточек начиная с " + from);
+                return new Batch(from - 1, Collections.emptyList());
+            }
+            System.out.println("[WAIT] Не прогрузились карточки " + lastState.subList(1, lastState.size())
+                    + " из пачки " + from + ".." + lastState.get(0));
+        }
+        return toBatch(lastState);
+    }
+
+    /**
+     * Разбирает результат скрипта проверки: номер последней проверенной карточки и номера непрогрузившихся.
+     *
+     * @param state результат {@link #HYDRATION_SCRIPT}
+     * @return результат ожидания пачки
+     *
+     * @author Сергей Лужин
+     */
+    static Batch toBatch(List<Long> state) {
+        List<Integer> unhydrated = new ArrayList<>();
+        for (Long index : state.subList(1, state.size())) {
+            unhydrated.add(index.intValue());
+        }
+        return new Batch(state.get(0).intValue(), unhydrated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> check(JavascriptExecutor js, List<WebElement> unchecked, int from) {
+        return (List<Long>) js.executeScript(HYDRATION_SCRIPT, unchecked, from,
+                new LocatorChain("ym.card.title.addon", xpathProperties.ymCardTitleAddonXpath()).rankedXpaths(),
+                new LocatorChain("ym.card.price.addon", xpathProperties.ymCardPriceAddonXpath()).rankedXpaths());
+    }
+}
@@ -0,0 +1,272 @@
+package helpers;
+
+import entity.Product;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Контрольная точка длинного сценария теста.
+ *
+ * После каждого выполненного шага сохраняет в локальный файл номер шага,
+ * текущий URL браузера и собранные к этому моменту списки товаров.
+ * При повторном запуске того же сценария уже выполненные шаги пропускаются,
+ * браузер открывается на сохранённом URL, а списки товаров восстанавливаются.
+ * Контрольная точка остаётся только после сбоя браузера или ожидания ({@link WebDriverException}):
+ * после успешного завершения или упавшей проверки она удаляется, см. {@link #finish(Throwable)}.
+ *
+ * @author Сергей Лужин
+ */
+public class Checkpoint {
+
+    /**
+     * Ключ незавершённого в текущей JVM сценария, для которого оставлен браузер, или null.
+     * Используется {@link Driver#quit()}, чтобы сохранить браузер для повторного запуска,
+     * и {@link #load(String)}, чтобы не отдать этот браузер другому сценарию.
+     */
+    private static volatile String pendingKey;
+
+    /**
+     * Ключ сценария.
+     */
+    private final String key;
+
+    /**
+     * Файл контрольной точки.
+     */
+    private final Path path;
+
+    /**
+     * Номер последнего выполненного шага.
+     */
+    private int completedStep;
+
+    /**
+     * URL браузера после последнего выполненного шага.
+     */
+    private String url;
+
+    /**
+     * Отслеживаемые списки товаров по названиям страниц.
+     */
+    private final Map<String, List<Product>> trackedProducts = new LinkedHashMap<>();
+
+    /**
+     * Сохранённые списки товаров, ещё не восстановленные в отслеживаемые списки.
+     */
+    private final Map<String, List<Product>> savedProducts = new LinkedHashMap<>();
+
+    private Checkpoint(String key, Path path) {
+        this.key = key;
+        this.path = path;
+    }
+
+    /**
+     * Загружает контрольную точку сценария.
+     * Если контрольные точки отключены, файла нет или он старше
+     * {@code checkpoint.max.age.minutes}, возвращается пустая контрольная точка.
+     *
+     * @param key ключ сценария (например, категория и фильтры)
+     * @return контрольная точка сценария
+     *
+     * @author Сергей Лужин
+     */
+    public static Checkpoint load(String key) {
+        Path path = Paths.get(testProperties.checkpointDir(), Integer.toHexString(key.hashCode()) + ".checkpoint");
+        Checkpoint checkpoint = new Checkpoint(key, path);
+        String keptFor = pendingKey;
+        if (keptFor != null && !keptFor.equals(key)) {
+            // Оставленный браузер открыт на странице другого сценария, продолжать в нём этот нельзя
+            System.out.println("[CHECKPOINT] Браузер оставлен для другого сценария, открываем новый");
+            pendingKey = null;
+            Driver.restart();
+        }
+        if (!testProperties.checkpointEnabled() || !Files.exists(path)) {
+            return checkpoint;
+        }
+
+        try {
+            long ageMs = System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+            if (ageMs > TimeUnit.MINUTES.toMillis(testProperties.checkpointMaxAgeMinutes())) {
+                System.out.println("[CHECKPOINT] Контрольная точка " + path + " устарела, начинаем сценарий заново");
+                Files.delete(path);
+                return checkpoint;
+            }
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                if (!key.equals(in.readUTF())) {
+                    return checkpoint;
+                }
+                checkpoint.completedStep = in.readInt();
+                String url = in.readUTF();
+                checkpoint.url = url.isEmpty() ? null : url;
+                int pages = in.readInt();
+                for (int i = 0; i < pages; i++) {
+                    String pageName = in.readUTF();
+                    int count = in.readInt();
+                    List<Product> products = new ArrayList<>(count);
+                    for (int j = 0; j < count; j++) {
+                        products.add(new Product(in.readUTF(), in.readInt()));
+                    }
+                    checkpoint.savedProducts.put(pageName, products);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("[CHECKPOINT] Не удалось прочитать контрольную точку " + path + ": " + e);
+            return new Checkpoint(key, path);
+        }
+
+        System.out.println("[CHECKPOINT] Найдена контрольная точка: выполнено шагов " + checkpoint.completedStep + ", URL " + checkpoint.url);
+        return checkpoint;
+    }
+
+    /**
+     * Проверяет, что в текущей JVM остался незавершённый сценарий с контрольной точкой.
+     *
+     * @return true, если есть незавершённый сценарий
+     *
+     * @author Сергей Лужин
+     */
+    public static boolean hasPending() {
+        return pendingKey != null;
+    }
+
+    /**
+     * Регистрирует список товаров страницы для сохранения в контрольной точке.
+     * Если в контрольной точке есть сохранённые товары этой страницы, они добавляются в список.
+     *
+     * @param pageName название страницы в сценарии
+     * @param products список товаров страницы
+     *
+     * @author Сергей Лужин
+     */
+    public void track(String pageName, List<Product> products) {
+        List<Product> saved = savedProducts.remove(pageName);
+        if (saved != null) {
+            products.addAll(saved);
+            System.out.println("[CHECKPOINT] Восстановлено товаров страницы '" + pageName + "': " + saved.size());
+        }
+        trackedProducts.put(pageName, products);
+    }
+
+    /**
+     * Выполняет шаг сценария, если он ещё не был выполнен, и сохраняет контрольную точку.
+     *
+     * @param stepIndex номер шага в сценарии, начиная с 1
+     * @param action    действие шага
+     *
+     * @author Сергей Лужин
+     */
+    public void step(int stepIndex, Runnable action) {
+        if (stepIndex <= completedStep) {
+            System.out.println("[CHECKPOINT] Шаг " + stepIndex + " уже выполнен, пропускаем");
+            return;
+        }
+        action.run();
+        completedStep = stepIndex;
+        url = Driver.getWebDriver().getCurrentUrl();
+        save();
+    }
+
+    /**
+     * Возвращает номер последнего выполненного шага.
+     *
+     * @return номер шага или 0, если сценарий начинается с начала
+     *
+     * @author Сергей Лужин
+     */
+    public int getCompletedStep() {
+        return completedStep;
+    }
+
+    /**
+     * Возвращает URL браузера после последнего выполненного шага.
+     *
+     * @return URL или null, если сценарий начинается с начала
+     *
+     * @author Сергей Лужин
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Завершает сценарий: удаляет контрольную точку, если сценарий прошёл или упал на проверке.
+     * После сбоя браузера или ожидания ({@link WebDriverException}) контрольная точка остаётся,
+     * чтобы повторный запуск продолжил сценарий; повтор упавшей проверки дал бы тот же результат.
+     * Вызывается в блоке finally сценария.
+     *
+     * @param failure ошибка сценария или null, если сценарий прошёл
+     *
+     * @author Сергей Лужин
+     */
+    public void finish(Throwable failure) {
+        if (failure instanceof WebDriverException) {
+            System.out.println("[CHECKPOINT] Сценарий прерван после шага " + completedStep + ", контрольная точка сохранена");
+            return;
+        }
+        clear();
+    }
+
+    /**
+     * Удаляет контрольную точку сценария.
+     *
+     * @author Сергей Лужин
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось удалить контрольную точку " + path, e);
+        }
+        if (key.equals(pendingKey)) {
+            pendingKey = null;
+        }
+    }
+
+    private void save() {
+        if (!testProperties.checkpointEnabled()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeUTF(key);
+                out.writeInt(completedStep);
+                out.writeUTF(url == null ? "" : url);
+                out.writeInt(trackedProducts.size());
+                for (Map.Entry<String, List<Product>> page : trackedProducts.entrySet()) {
+                    out.writeUTF(page.getKey());
+                    out.writeInt(page.getValue().size());
+                    for (Product product : page.getValue()) {
+                        out.writeUTF(product.getTitle());
+                        out.writeInt(product.getPrice());
+                    }
+                }
+            }
+            // Атомарная замена, чтобы прерванная запись не испортила предыдущую контрольную точку
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить контрольную точку " + path, e);
+        }
+        pendingKey = key;
+    }
+}
@@ -0,0 +1,267 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openqa.selenium.logging.LogEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Трассировка Chrome за время одного шага, собранная из журнала performance ChromeDriver.
+ *
+ * Содержит события трассировки (задачи главного потока, вёрстка, скрипты)
+ * и события сети DevTools. Умеет сохраняться в формате, который открывается
+ * во вкладке Performance DevTools, и строить краткую сводку:
+ * длинные задачи, вёрстка, вызванная скриптами, и водопад запросов.
+ *
+ * @author Сергей Лужин
+ */
+public class ChromeTrace {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Названия событий, соответствующих задаче главного потока.
+     */
+    private static final Set<String> TASKS = new HashSet<>(Arrays.asList("RunTask", "ThreadControllerImpl::RunTask"));
+
+    /**
+     * Названия событий выполнения скриптов, внутри которых вёрстка считается принудительной.
+     */
+    private static final Set<String> SCRIPTS = new HashSet<>(Arrays.asList("FunctionCall", "EvaluateScript", "TimerFire", "EventDispatch"));
+
+    /**
+     * Сколько запросов выводить в водопаде сети.
+     */
+    private static final int WATERFALL_LIMIT = 30;
+
+    private final List<JsonNode> traceEvents = new ArrayList<>();
+    private final List<JsonNode> networkEvents = new ArrayList<>();
+
+    /**
+     * Разбирает записи журнала performance.
+     *
+     * @param entries записи журнала
+     * @return трассировка
+     *
+     * @author Сергей Лужин
+     */
+    public static ChromeTrace fromLog(Iterable<LogEntry> entries) {
+        ChromeTrace trace = new ChromeTrace();
+        for (LogEntry entry : entries) {
+            try {
+                JsonNode message = MAPPER.readTree(entry.getMessage()).path("message");
+                String method = message.path("method").asText();
+                if ("Tracing.dataCollected".equals(method)) {
+                    trace.traceEvents.add(message.path("params"));
+                } else if (method.startsWith("Network.")) {
+                    trace.networkEvents.add(message);
+                }
+            } catch (IOException e) {
+                System.out.println("[TRACE] Пропущена нераспознанная запись журнала: " + e.getMessage());
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Проверяет, есть ли в трассировке события.
+     *
+     * @return true, если событий нет
+     *
+     * @author Сергей Лужин
+     */
+    public boolean isEmpty() {
+        return traceEvents.isEmpty() && networkEvents.isEmpty();
+    }
+
+    /**
+     * Сохраняет события трассировки в формате {@code {"traceEvents": [...]}}, сжатом gzip.
+     *
+     * @return сжатая трассировка
+     *
+     * @author Сергей Лужин
+     */
+    public byte[] toGzippedJson() {
+        ObjectNode root = MAPPER.createObjectNode();
+        ArrayNode events = root.putArray("traceEvents");
+        traceEvents.forEach(events::add);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            MAPPER.writeValue(gzip, root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сжать трассировку", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Строит сводку трассировки: сколько времени шага занял главный поток браузера,
+     * длинные задачи, вёрстка (в том числе вызванная из скриптов) и водопад сетевых запросов.
+     * Время шага сверх занятости главного потока приходится на сеть, клиент и команды WebDriver.
+     *
+     * @param stepDurationMs длительность шага в миллисекундах
+     * @param longTaskMs     порог длинной задачи в миллисекундах
+     * @return текстовая сводка
+     *
+     * @author Сергей Лужин
+     */
+    public String summary(long stepDurationMs, long longTaskMs) {
+        Set<Long> mainThreads = rendererMainThreads();
+        long busyMicros = 0;
+        List<Long> longTasks = new ArrayList<>();
+        Map<Long, List<long[]>> scriptIntervals = new HashMap<>();
+        List<JsonNode> layouts = new ArrayList<>();
+        long styleCount = 0;
+        long styleMicros = 0;
+
+        for (JsonNode event : traceEvents) {
+            if (!"X".equals(event.path("ph").asText())) {
+                continue;
+            }
+            String name = event.path("name").asText();
+            long tid = event.path("tid").asLong();
+            long ts = event.path("ts").asLong();
+            long dur = event.path("dur").asLong();
+            if (TASKS.contains(name) && (mainThreads.isEmpty() || mainThreads.contains(tid))) {
+                busyMicros += dur;
+                if (dur >= longTaskMs * 1000) {
+                    longTasks.add(dur / 1000);
+                }
+            } else if (SCRIPTS.contains(name)) {
+                scriptIntervals.computeIfAbsent(tid, k -> new ArrayList<>()).add(new long[]{ts, ts + dur});
+            } else if ("Layout".equals(name)) {
+                layouts.add(event);
+            } else if ("UpdateLayoutTree".equals(name)) {
+                styleCount++;
+                styleMicros += dur;
+            }
+        }
+
+        long layoutMicros = 0;
+        int forcedLayouts = 0;
+        for (JsonNode layout : layouts) {
+            long ts = layout.path("ts").asLong();
+            layoutMicros += layout.path("dur").asLong();
+            for (long[] script : scriptIntervals.getOrDefault(layout.path("tid").asLong(), new ArrayList<>())) {
+                if (ts >= script[0] && ts < script[1]) {
+                    forcedLayouts++;
+                    break;
+                }
+            }
+        }
+
+        longTasks.sort((a, b) -> Long.compare(b, a));
+        long busyMs = busyMicros / 1000;
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Шаг: %d мс, главный поток браузера занят %d мс, вне главного потока (сеть, клиент, WebDriver) %d мс%n",
+                stepDurationMs, busyMs, Math.max(0, stepDurationMs - busyMs)));
+        summary.append(String.format("Длинные задачи (от %d мс): %d шт. на %d мс %s%n",
+                longTaskMs, longTasks.size(), longTasks.stream().mapToLong(Long::longValue).sum(),
+                longTasks.subList(0, Math.min(5, longTasks.size()))));
+        summary.append(String.format("Вёрстка: %d раз на %d мс, из них вызвана скриптами %d; пересчёт стилей %d раз на %d мс%n",
+                layouts.size(), layoutMicros / 1000, forcedLayouts, styleCount, styleMicros / 1000));
+        summary.append(networkWaterfall());
+        return summary.toString();
+    }
+
+    /**
+     * Находит потоки CrRendererMain по метаданным трассировки.
+     *
+     * @return идентификаторы главных потоков отрисовки; пусто, если метаданных нет
+     *
+     * @author Сергей Лужин
+     */
+    private Set<Long> rendererMainThreads() {
+        Set<Long> threads = new HashSet<>();
+        for (JsonNode event : traceEvents) {
+            if ("M".equals(event.path("ph").asText()) && "thread_name".equals(event.path("name").asText())
+                    && "CrRendererMain".equals(event.path("args").path("name").asText())) {
+                threads.add(event.path("tid").asLong());
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * Строит водопад сетевых запросов по событиям Network.*: начало относительно первого запроса,
+     * длительность, статус, размер и адрес.
+     *
+     * @return текстовый водопад
+     *
+     * @author Сергей Лужин
+     */
+    private String networkWaterfall() {
+        Map<String, double[]> timings = new LinkedHashMap<>();
+        Map<String, String> urls = new HashMap<>();
+        Map<String, String> statuses = new HashMap<>();
+        for (JsonNode event : networkEvents) {
+            JsonNode params = event.path("params");
+            String id = params.path("requestId").asText();
+            double timestamp = params.path("timestamp").asDouble();
+            switch (event.path("method").asText()) {
+                case "Network.requestWillBeSent":
+                    timings.putIfAbsent(id, new double[]{timestamp, Double.NaN, 0});
+                    urls.put(id, params.path("request").path("url").asText());
+                    break;
+                case "Network.responseReceived":
+                    statuses.put(id, params.path("response").path("status").asText());
+                    break;
+                case "Network.loadingFinished":
+                    if (timings.containsKey(id)) {
+                        timings.get(id)[1] = timestamp;
+                        timings.get(id)[2] = params.path("encodedDataLength").asDouble();
+                    }
+                    break;
+                case "Network.loadingFailed":
+                    if (timings.containsKey(id)) {
+                        timings.get(id)[1] = timestamp;
+                    }
+                    statuses.put(id, "ошибка " + params.path("errorText").asText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (timings.isEmpty()) {
+            return "Сеть: запросов не было\n";
+        }
+
+        double first = timings.values().stream().mapToDouble(t -> t[0]).min().orElse(0);
+        double last = timings.values().stream().mapToDouble(t -> Double.isNaN(t[1]) ? t[0] : t[1]).max().orElse(first);
+        double bytes = timings.values().stream().mapToDouble(t -> t[2]).sum();
+        StringBuilder waterfall = new StringBuilder(String.format("Сеть: %d запросов, окно %.0f мс, %.0f КБ%n",
+                timings.size(), (last - first) * 1000, bytes / 1024));
+
+        List<Map.Entry<String, double[]>> requests = new ArrayList<>(timings.entrySet());
+        requests.sort((a, b) -> Double.compare(a.getValue()[0], b.getValue()[0]));
+        for (Map.Entry<String, double[]> request : requests.subList(0, Math.min(WATERFALL_LIMIT, requests.size()))) {
+            double[] t = request.getValue();
+            String url = urls.getOrDefault(request.getKey(), "");
+            waterfall.append(String.format("  +%6.0f мс %6s мс  %-10s %6.0f КБ  %s%n",
+                    (t[0] - first) * 1000,
+                    Double.isNaN(t[1]) ? "—" : String.format("%.0f", (t[1] - t[0]) * 1000),
+                    statuses.getOrDefault(request.getKey(), "—"),
+                    t[2] / 1024,
+                    url.length() > 120 ? url.substring(0, 120) + "…" : url));
+        }
+        if (requests.size() > WATERFALL_LIMIT) {
+            waterfall.append("  и ещё ").append(requests.size() - WATERFALL_LIMIT).append('\n');
+        }
+        return waterfall.toString();
+    }
+}
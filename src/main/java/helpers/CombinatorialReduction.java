@@ -0,0 +1,156 @@
+package helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сокращение набора тестовых данных с сохранением покрытия сочетаний значений.
+ *
+ * Колонки набора объединяются в факторы: например, категория и подкатегория
+ * или минимальная и максимальная цена образуют один фактор, потому что
+ * их значения имеют смысл только вместе. Из исходных строк жадно выбираются строки,
+ * покрывающие наибольшее число ещё не покрытых сочетаний значений любых {@code t} факторов,
+ * пока не будут покрыты все сочетания, встречающиеся в исходном наборе.
+ * При {@code t = 2} это попарное покрытие (all-pairs).
+ *
+ * Жадный выбор не гарантирует абсолютный минимум строк, но на практике даёт
+ * набор, близкий к минимальному, за время, пропорциональное числу строк и сочетаний.
+ *
+ * @author Сергей Лужин
+ */
+public class CombinatorialReduction {
+
+    /**
+     * Оставляет строки, покрывающие все сочетания значений любых {@code strength} факторов.
+     * Порядок оставленных строк совпадает с исходным.
+     *
+     * @param rows     исходные строки набора данных
+     * @param factors  номера колонок, образующих каждый фактор
+     * @param strength количество факторов в сочетании; 0 и меньше — без сокращения
+     * @return сокращённый набор строк
+     *
+     * @author Сергей Лужин
+     */
+    public static List<Object[]> reduce(List<Object[]> rows, int[][] factors, int strength) {
+        if (strength <= 0 || rows.isEmpty()) {
+            return rows;
+        }
+        int t = Math.min(strength, factors.length);
+
+        // Значение фактора в строке заменяем номером, чтобы сочетания сравнивались как массивы чисел
+        List<Map<List<Object>, Integer>> valueIds = new ArrayList<>();
+        for (int f = 0; f < factors.length; f++) {
+            valueIds.add(new HashMap<>());
+        }
+        int[][] rowValues = new int[rows.size()][factors.length];
+        for (int r = 0; r < rows.size(); r++) {
+            for (int f = 0; f < factors.length; f++) {
+                List<Object> value = new ArrayList<>();
+                for (int column : factors[f]) {
+                    value.add(rows.get(r)[column]);
+                }
+                Map<List<Object>, Integer> ids = valueIds.get(f);
+                Integer id = ids.get(value);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(value, id);
+                }
+                rowValues[r][f] = id;
+            }
+        }
+
+        List<int[]> combinations = combinations(factors.length, t);
+        Map<List<Integer>, Integer> tupleIds = new HashMap<>();
+        int[][] rowTuples = new int[rows.size()][combinations.size()];
+        for (int r = 0; r < rows.size(); r++) {
+            for (int c = 0; c < combinations.size(); c++) {
+                int[] combination = combinations.get(c);
+                List<Integer> tuple = new ArrayList<>(t + 1);
+                tuple.add(c);
+                for (int f : combination) {
+                    tuple.add(rowValues[r][f]);
+                }
+                Integer id = tupleIds.get(tuple);
+                if (id == null) {
+                    id = tupleIds.size();
+                    tupleIds.put(tuple, id);
+                }
+                rowTuples[r][c] = id;
+            }
+        }
+
+        boolean[] covered = new boolean[tupleIds.size()];
+        boolean[] selected = new boolean[rows.size()];
+        int uncovered = tupleIds.size();
+        while (uncovered > 0) {
+            int best = -1;
+            int bestGain = 0;
+            for (int r = 0; r < rows.size(); r++) {
+                if (selected[r]) {
+                    continue;
+                }
+                int gain = 0;
+                for (int tuple : rowTuples[r]) {
+                    if (!covered[tuple]) {
+                        gain++;
+                    }
+                }
+                if (gain > bestGain) {
+                    best = r;
+                    bestGain = gain;
+                }
+            }
+            selected[best] = true;
+            for (int tuple : rowTuples[best]) {
+                if (!covered[tuple]) {
+                    covered[tuple] = true;
+                    uncovered--;
+                }
+            }
+        }
+
+        List<Object[]> reduced = new ArrayList<>();
+        for (int r = 0; r < rows.size(); r++) {
+            if (selected[r]) {
+                reduced.add(rows.get(r));
+            }
+        }
+        System.out.println("[DATASET] Покрытие сочетаний по " + t + " факторов: " + reduced.size()
+                + " строк из " + rows.size() + ", сочетаний " + tupleIds.size());
+        return reduced;
+    }
+
+    /**
+     * Перечисляет все сочетания из {@code n} факторов по {@code k} в лексикографическом порядке.
+     *
+     * @param n количество факторов
+     * @param k размер сочетания
+     * @return список сочетаний номеров факторов
+     *
+     * @author Сергей Лужин
+     */
+    private static List<int[]> combinations(int n, int k) {
+        List<int[]> result = new ArrayList<>();
+        int[] combination = new int[k];
+        for (int i = 0; i < k; i++) {
+            combination[i] = i;
+        }
+        while (true) {
+            result.add(Arrays.copyOf(combination, k));
+            int i = k - 1;
+            while (i >= 0 && combination[i] == n - k + i) {
+                i--;
+            }
+            if (i < 0) {
+                return result;
+            }
+            combination[i]++;
+            for (int j = i + 1; j < k; j++) {
+                combination[j] = combination[j - 1] + 1;
+            }
+        }
+    }
+}
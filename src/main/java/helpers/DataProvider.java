@@ -2,9 +2,14 @@ package helpers;
 
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static helpers.Properties.testProperties;
+
 /**
  * Класс-поставщик тестовых данных для параметризованных тестов.
  * Содержит набор функций, возвращающих поток аргументов для тестов.
@@ -12,8 +17,52 @@ import java.util.stream.Stream;
  * @author Сергей Лужин
  */
 public class DataProvider {
+
+    /**
+     * Колонки внешнего набора данных для теста каталога в порядке аргументов теста.
+     */
+    private static final List<Dataset.Column> CATALOG_COLUMNS = Arrays.asList(
+            new Dataset.Column("category", Dataset.Type.STRING),
+            new Dataset.Column("subcategory", Dataset.Type.STRING),
+            new Dataset.Column("minPrice", Dataset.Type.INT),
+            new Dataset.Column("maxPrice", Dataset.Type.INT),
+            new Dataset.Column("brands", Dataset.Type.LIST),
+            new Dataset.Column("indexOfCheckedElement", Dataset.Type.INT),
+            new Dataset.Column("checkedProductAmount", Dataset.Type.INT)
+    );
+
+    /**
+     * Факторы теста каталога для сокращения набора: раздел каталога, ценовой диапазон,
+     * бренды и проверяемый товар с ожидаемым количеством товаров.
+     */
+    private static final int[][] CATALOG_FACTORS = {{0, 1}, {2, 3}, {4}, {5, 6}};
+
+    /**
+     * Возвращает наборы данных для теста каталога Яндекс Маркета,
+     * относящиеся к текущему шарду, от самых долгих к самым коротким.
+     * Если задан {@code dataset.path}, наборы читаются из файла
+     * и при {@code dataset.reduction.strength} больше нуля сокращаются
+     * с сохранением покрытия сочетаний значений факторов.
+     *
+     * @return поток наборов аргументов
+     *
+     * @author Сергей Лужин
+     */
     public static Stream<Arguments> providerYMtestCatalog(){
-        return Stream.of(
+        String datasetPath = testProperties.datasetPath();
+        if (!datasetPath.isEmpty()) {
+            List<Object[]> rows;
+            try (Stream<Object[]> stream = Dataset.rows(Paths.get(datasetPath), CATALOG_COLUMNS)) {
+                rows = stream.collect(Collectors.toList());
+            }
+            rows = CombinatorialReduction.reduce(rows, CATALOG_FACTORS, testProperties.datasetReductionStrength());
+            return TestSharding.shard(
+                    rows.stream().map(Arguments::of).collect(Collectors.toList()),
+                    DurationHistory.getDefault()
+            ).stream();
+        }
+
+        return TestSharding.shard(Arrays.asList(
                 Arguments.of(
                         "Электроника",                       // String category
                         "Ноутбуки",                                     // String subcategory
@@ -23,6 +72,6 @@ public class DataProvider {
                         0,                                              // int indexOfCheckedElement
                         12                                              // int checkedProductAmount
                 )
-        );
+        ), DurationHistory.getDefault()).stream();
     }
 }
@@ -0,0 +1,298 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Внешний набор тестовых данных в формате CSV или JSON.
+ *
+ * Набор описывается списком колонок {@link Column}: строки файла читаются
+ * лениво по одной и превращаются в массивы аргументов в порядке колонок,
+ * независимо от порядка полей в файле.
+ *
+ * CSV: первая строка — заголовок с названиями колонок, разделитель — запятая,
+ * значения с запятыми берутся в двойные кавычки, элементы списков разделяются символом {@code |}.
+ * JSON: массив объектов, списки задаются JSON-массивами строк.
+ *
+ * @author Сергей Лужин
+ */
+public class Dataset {
+
+    /**
+     * Тип значения колонки.
+     *
+     * @author Сергей Лужин
+     */
+    public enum Type {
+        STRING,
+        INT,
+        LIST
+    }
+
+    /**
+     * Колонка набора данных: название поля в файле и тип значения.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Column {
+
+        private final String name;
+        private final Type type;
+
+        /**
+         * Создаёт описание колонки.
+         *
+         * @param name название поля в файле
+         * @param type тип значения
+         *
+         * @author Сергей Лужин
+         */
+        public Column(String name, Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        /**
+         * Возвращает название поля в файле.
+         *
+         * @return название поля
+         *
+         * @author Сергей Лужин
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Возвращает тип значения колонки.
+         *
+         * @return тип значения
+         *
+         * @author Сергей Лужин
+         */
+        public Type getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Разделитель элементов списка в CSV.
+     */
+    private static final String LIST_SEPARATOR = "\\|";
+
+    /**
+     * Лениво читает строки набора данных из файла.
+     * Формат определяется по расширению: {@code .json} — JSON, иначе CSV.
+     * Файл закрывается при закрытии потока.
+     *
+     * @param path    путь к файлу набора данных
+     * @param columns колонки набора в порядке аргументов теста
+     * @return поток массивов аргументов
+     *
+     * @author Сергей Лужин
+     */
+    public static Stream<Object[]> rows(Path path, List<Column> columns) {
+        try {
+            return path.getFileName().toString().toLowerCase().endsWith(".json")
+                    ? jsonRows(path, columns)
+                    : csvRows(path, columns);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать набор данных " + path, e);
+        }
+    }
+
+    /**
+     * Лениво читает строки CSV-файла.
+     *
+     * @param path    путь к CSV-файлу
+     * @param columns колонки набора
+     * @return поток массивов аргументов
+     * @throws IOException если файл не удалось открыть
+     *
+     * @author Сергей Лужин
+     */
+    private static Stream<Object[]> csvRows(Path path, List<Column> columns) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        String header = reader.readLine();
+        if (header == null) {
+            reader.close();
+            return Stream.empty();
+        }
+        // BOM, который добавляют табличные редакторы, не должен попасть в название первой колонки
+        List<String> names = splitCsvLine(header.replace("\uFEFF", ""));
+        int[] positions = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            positions[i] = names.indexOf(columns.get(i).getName());
+            if (positions[i] < 0) {
+                reader.close();
+                throw new IllegalArgumentException("В наборе " + path + " нет колонки " + columns.get(i).getName());
+            }
+        }
+
+        return reader.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .map(line -> {
+                    List<String> cells = splitCsvLine(line);
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        String cell = positions[i] < cells.size() ? cells.get(positions[i]) : "";
+                        row[i] = convert(cell, columns.get(i).getType());
+                    }
+                    return row;
+                })
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Лениво читает объекты JSON-массива.
+     *
+     * @param path    путь к JSON-файлу
+     * @param columns колонки набора
+     * @return поток массивов аргументов
+     * @throws IOException если файл не удалось открыть
+     *
+     * @author Сергей Лужин
+     */
+    private static Stream<Object[]> jsonRows(Path path, List<Column> columns) throws IOException {
+        MappingIterator<JsonNode> nodes = new ObjectMapper().readerFor(JsonNode.class).readValues(path.toFile());
+        Spliterator<JsonNode> spliterator = new Spliterators.AbstractSpliterator<JsonNode>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super JsonNode> action) {
+                if (!nodes.hasNext()) {
+                    return false;
+                }
+                action.accept(nodes.next());
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .map(node -> {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        Column column = columns.get(i);
+                        JsonNode value = node.get(column.getName());
+                        if (value == null) {
+                            throw new IllegalArgumentException("В наборе " + path + " нет поля " + column.getName() + ": " + node);
+                        }
+                        row[i] = convert(value, column.getType());
+                    }
+                    return row;
+                })
+                .onClose(() -> {
+                    try {
+                        nodes.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Приводит значение ячейки CSV к типу колонки.
+     *
+     * @param cell значение ячейки
+     * @param type тип колонки
+     * @return значение аргумента
+     *
+     * @author Сергей Лужин
+     */
+    private static Object convert(String cell, Type type) {
+        switch (type) {
+            case INT:
+                return Integer.parseInt(cell.trim());
+            case LIST:
+                return cell.trim().isEmpty()
+                        ? Collections.emptyList()
+                        : Arrays.stream(cell.split(LIST_SEPARATOR)).map(String::trim).collect(Collectors.toList());
+            default:
+                return cell;
+        }
+    }
+
+    /**
+     * Приводит значение поля JSON к типу колонки.
+     *
+     * @param value значение поля
+     * @param type  тип колонки
+     * @return значение аргумента
+     *
+     * @author Сергей Лужин
+     */
+    private static Object convert(JsonNode value, Type type) {
+        switch (type) {
+            case INT:
+                return value.asInt();
+            case LIST:
+                List<String> items = new ArrayList<>();
+                if (value.isArray()) {
+                    value.forEach(item -> items.add(item.asText()));
+                } else {
+                    items.add(value.asText());
+                }
+                return items;
+            default:
+                return value.asText();
+        }
+    }
+
+    /**
+     * Разбивает строку CSV на ячейки с учётом значений в двойных кавычках.
+     *
+     * @param line строка CSV
+     * @return список ячеек
+     *
+     * @author Сергей Лужин
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
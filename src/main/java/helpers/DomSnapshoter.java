@@ -0,0 +1,61 @@
+package helpers;
+
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Утилитный класс для снятия снимка DOM страницы и прикрепления его к отчёту Allure.
+ * Дешёвая альтернатива скриншоту: для разбора неверной цены или бренда
+ * разметка выдачи полезнее картинки.
+ *
+ * @author Сергей Лужин
+ */
+public class DomSnapshoter {
+
+    /**
+     * Скрипт, возвращающий разметку элемента по CSS-селектору или всего документа.
+     */
+    private static final String SERIALIZE_SCRIPT =
+            "var root = arguments[0] ? document.querySelector(arguments[0]) : null;" +
+            "return (root || document.documentElement).outerHTML;";
+
+    /**
+     * Сериализует в браузере элемент {@code capture.dom.selector} (или весь документ, если элемента нет),
+     * и прикрепляет разметку к отчёту Allure файлом .html, который отчёт открывает без распаковки.
+     * Для хранения вложения сжимаются при упаковке в архив {@link AllureResultsManager}.
+     *
+     * @param name название вложения в отчёте Allure
+     *
+     * @author Сергей Лужин
+     */
+    public static void attachDomSnapshot(String name) {
+        WebDriver driver = Driver.getWebDriver();
+        // Скрипт выполняем без EventFiringWebDriver, чтобы не вызывать слушатель повторно
+        if (driver instanceof EventFiringWebDriver) {
+            driver = ((EventFiringWebDriver) driver).getWrappedDriver();
+        }
+        try {
+            if (driver instanceof JavascriptExecutor) {
+                CaptureJfrEvent event = new CaptureJfrEvent();
+                event.begin();
+                long start = System.nanoTime();
+                String html = (String) ((JavascriptExecutor) driver).executeScript(SERIALIZE_SCRIPT, testProperties.captureDomSelector());
+                byte[] bytes = ("<!DOCTYPE html>\n" + html).getBytes(StandardCharsets.UTF_8);
+                CaptureStatistics.record("DOM (text/html)", start, bytes.length);
+                event.kind = "DOM (text/html)";
+                event.name = name;
+                event.size = bytes.length;
+                event.commit();
+
+                Allure.addAttachment(name, "text/html", new ByteArrayInputStream(bytes), ".html");
+            }
+        } catch (Exception ignored) {}
+    }
+}
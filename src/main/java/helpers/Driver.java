@@ -1,9 +1,30 @@
 package helpers;
 
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 import static helpers.Properties.testProperties;
 
@@ -22,38 +43,294 @@ public class Driver {
      */
     private static WebDriver webDriver;
 
+    /**
+     * Признак того, что закрытие оставленного браузера уже зарегистрировано на завершение JVM.
+     */
+    private static boolean shutdownHookRegistered;
+
+    /**
+     * Локальный ChromeDriver, общий для всех сессий в режиме remote без заданного адреса.
+     */
+    private static ChromeDriverService localDriverService;
+
+    /**
+     * Признак того, что текущий драйвер умеет делать скриншоты.
+     */
+    private static boolean screenshotsSupported;
+
+    /**
+     * Признак того, что текущий драйвер записывает трассировку Chrome для шагов.
+     */
+    private static boolean tracingEnabled;
+
+    /**
+     * Сессия, привязанная к текущему потоку в нагрузочном режиме.
+     * Если задана, используется вместо общего экземпляра WebDriver.
+     */
+    private static final ThreadLocal<WebDriver> threadSession = new ThreadLocal<>();
 
     /**
      * Возвращает текущий экземпляр WebDriver.
+     * Если к потоку привязана сессия через {@link #bindSession(WebDriver)}, возвращает её.
      *
      * @return активный экземпляр WebDriver или null, если {@link #create()} ещё не вызывался
      *
      * @author Сергей Лужин
      */
     public static WebDriver getWebDriver () {
-        return webDriver;
+        WebDriver session = threadSession.get();
+        return session != null ? session : webDriver;
+    }
+
+    /**
+     * Привязывает сессию к текущему потоку: шаги и страницы, вызванные в этом потоке,
+     * будут работать с ней. Передача null снимает привязку.
+     *
+     * @param session сессия браузера или null
+     *
+     * @author Сергей Лужин
+     */
+    public static void bindSession(WebDriver session) {
+        if (session == null) {
+            threadSession.remove();
+        } else {
+            threadSession.set(session);
+        }
+    }
+
+    /**
+     * Создаёт отдельную сессию браузера без отрисовки для нагрузочного режима.
+     * Сессия не становится общим драйвером и не снимает вложения Allure.
+     *
+     * @return новая сессия браузера
+     *
+     * @author Сергей Лужин
+     */
+    public static WebDriver createHeadlessSession() {
+        WebDriver session = createBaseDriver(true, false);
+        session.manage().window().setSize(new Dimension(1920, 1080));
+        session.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+        return session;
+    }
+
+    /**
+     * Проверяет, умеет ли текущий драйвер делать скриншоты.
+     * Драйвер htmlunit страницу не отрисовывает, поэтому скриншоты для него не снимаются.
+     *
+     * @return true, если скриншоты поддерживаются
+     *
+     * @author Сергей Лужин
+     */
+    public static boolean supportsScreenshots() {
+        return screenshotsSupported;
     }
 
     /**
      * Создаёт и настраивает экземпляр WebDriver для использования в тестах.
-     * Устанавливает путь к ChromeDriver, оборачивает драйвер в EventFiringWebDriver
-     * и регистрирует слушатель скриншотов для Allure.
-     * Также настраивает размер окна и неявное ожидание.
+     * Если от незавершённого сценария остался живой браузер, переиспользует его.
+     * Иначе создаёт драйвер выбранного в {@code driver.backend} типа, оборачивает его в EventFiringWebDriver
+     * и регистрирует слушатели событий JFR и скриншотов для Allure.
+     * Также настраивает размер окна и отключает неявное ожидание,
+     * чтобы оно не складывалось с ожиданиями {@link Waiter}.
      *
      * @author Сергей Лужин
      */
     public static void create() {
-        System.setProperty("webdriver.chrome.driver", testProperties.driverChrome());
+        if (webDriver != null && isAlive(webDriver)) {
+            System.out.println("[DRIVER] Используем браузер, оставшийся от незавершённого сценария");
+            return;
+        }
 
-        WebDriver base = new ChromeDriver();
+        boolean tracing = testProperties.traceStepsEnabled() && !"htmlunit".equals(testProperties.driverBackend());
+        WebDriver base = createBaseDriver(false, tracing);
+        tracingEnabled = tracing;
+        // EventFiringWebDriver всегда реализует TakesScreenshot, поэтому проверяем исходный драйвер
+        screenshotsSupported = base instanceof TakesScreenshot;
 
         EventFiringWebDriver driver = new EventFiringWebDriver(base);
+        // Слушатель JFR первым: его after-события срабатывают до снятия вложений
+        driver.register(new JfrDriverListener());
         driver.register(new AllureScreenshotListener());
 
         driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(testProperties.defaultTimeout(), TimeUnit.SECONDS);
+        // Неявное ожидание отключено: все ожидания выполняются через Waiter
+        driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
 
         webDriver = driver;
     }
-}
 
+    /**
+     * Завершает работу WebDriver.
+     * Если включены контрольные точки и сценарий не был завершён,
+     * браузер остаётся открытым для повторного запуска и закрывается при завершении JVM.
+     *
+     * @author Сергей Лужин
+     */
+    public static void quit() {
+        if (webDriver == null) {
+            return;
+        }
+
+        if (testProperties.checkpointEnabled() && Checkpoint.hasPending()) {
+            System.out.println("[DRIVER] Сценарий не завершён, оставляем браузер для повторного запуска");
+            if (!shutdownHookRegistered) {
+                shutdownHookRegistered = true;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    if (webDriver != null) {
+                        webDriver.quit();
+                    }
+                }));
+            }
+            return;
+        }
+
+        webDriver.quit();
+        webDriver = null;
+    }
+
+    /**
+     * Закрывает текущий браузер, даже если он оставлен для незавершённого сценария, и создаёт новый.
+     * Вызывается {@link Checkpoint#load(String)}, когда браузер оставлен для другого сценария.
+     *
+     * @author Сергей Лужин
+     */
+    public static void restart() {
+        if (webDriver != null) {
+            abort(webDriver);
+        }
+        create();
+    }
+
+    /**
+     * Принудительно закрывает сессию браузера зависшего теста, не оставляя её для контрольных точек:
+     * состояние такой сессии ненадёжно, а поток теста должен как можно быстрее освободиться.
+     * Вызывается из {@link HangWatchdog}.
+     *
+     * @param session закрываемая сессия
+     *
+     * @author Сергей Лужин
+     */
+    public static synchronized void abort(WebDriver session) {
+        try {
+            session.quit();
+        } catch (RuntimeException e) {
+            System.out.println("[DRIVER] Сессия закрылась с ошибкой: " + e.getMessage());
+        }
+        if (webDriver == session) {
+            webDriver = null;
+        }
+    }
+
+    /**
+     * Создаёт драйвер браузера в соответствии с настройкой {@code driver.backend}:
+     * chrome — локальный ChromeDriver на каждую сессию,
+     * remote — RemoteWebDriver с общим пулом HTTP-соединений,
+     * htmlunit — HtmlUnit внутри JVM с включённым JavaScript.
+     *
+     * @param headless запускать ли Chrome без отрисовки окна
+     * @param tracing  включать ли журнал производительности с трассировкой Chrome
+     * @return драйвер браузера без обёрток
+     *
+     * @author Сергей Лужин
+     */
+    private static WebDriver createBaseDriver(boolean headless, boolean tracing) {
+        switch (testProperties.driverBackend()) {
+            case "chrome":
+                System.setProperty("webdriver.chrome.driver", testProperties.driverChrome());
+                return new ChromeDriver(chromeOptions(headless, tracing));
+            case "remote":
+                HttpCommandExecutor executor = new HttpCommandExecutor(
+                        Collections.emptyMap(),
+                        remoteUrl(),
+                        PooledHttpClientFactory.getInstance()
+                );
+                return new RemoteWebDriver(executor, chromeOptions(headless, tracing));
+            case "htmlunit":
+                return new HtmlUnitDriver(BrowserVersion.CHROME, true);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип драйвера: " + testProperties.driverBackend());
+        }
+    }
+
+    /**
+     * Возвращает настройки Chrome.
+     * При включённой трассировке ChromeDriver пишет в журнал performance
+     * события сети и события трассировки категорий {@code trace.categories}.
+     *
+     * @param headless запускать ли Chrome без отрисовки окна
+     * @param tracing  включать ли трассировку
+     * @return настройки Chrome
+     *
+     * @author Сергей Лужин
+     */
+    private static ChromeOptions chromeOptions(boolean headless, boolean tracing) {
+        ChromeOptions options = new ChromeOptions().setHeadless(headless);
+        if (tracing) {
+            Map<String, Object> perfLoggingPrefs = new HashMap<>();
+            perfLoggingPrefs.put("enableNetwork", true);
+            perfLoggingPrefs.put("enablePage", false);
+            perfLoggingPrefs.put("traceCategories", testProperties.traceCategories());
+            options.setExperimentalOption("perfLoggingPrefs", perfLoggingPrefs);
+
+            LoggingPreferences logging = new LoggingPreferences();
+            logging.enable(LogType.PERFORMANCE, Level.ALL);
+            options.setCapability("goog:loggingPrefs", logging);
+        }
+        return options;
+    }
+
+    /**
+     * Проверяет, записывает ли текущий драйвер трассировку Chrome для шагов.
+     *
+     * @return true, если трассировка включена и поддерживается драйвером
+     *
+     * @author Сергей Лужин
+     */
+    public static boolean supportsTracing() {
+        return tracingEnabled;
+    }
+
+    /**
+     * Возвращает адрес удалённого WebDriver.
+     * Если {@code driver.remote.url} не задан, один раз на JVM запускает локальный ChromeDriver,
+     * к которому подключаются все сессии.
+     *
+     * @return адрес удалённого WebDriver
+     *
+     * @author Сергей Лужин
+     */
+    private static synchronized URL remoteUrl() {
+        String configuredUrl = testProperties.driverRemoteUrl();
+        if (!configuredUrl.isEmpty()) {
+            try {
+                return new URL(configuredUrl);
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Некорректный driver.remote.url: " + configuredUrl, e);
+            }
+        }
+
+        if (localDriverService == null) {
+            ChromeDriverService service = new ChromeDriverService.Builder()
+                    .usingDriverExecutable(new File(testProperties.driverChrome()))
+                    .usingAnyFreePort()
+                    .build();
+            try {
+                service.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось запустить ChromeDriver", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+            localDriverService = service;
+        }
+        return localDriverService.getUrl();
+    }
+
+    private static boolean isAlive(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+}
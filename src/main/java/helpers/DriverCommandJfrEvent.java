@@ -0,0 +1,44 @@
+package helpers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder для команды WebDriver, замеченной через EventFiringWebDriver.
+ * Записывается {@link JfrDriverListener}.
+ *
+ * @author Сергей Лужин
+ */
+@Name("yandexmarket.DriverCommand")
+@Label("Команда WebDriver")
+@Category({"Yandex Market", "WebDriver"})
+@Description("Команда WebDriver: переход, поиск элемента, клик, ввод текста, скрипт")
+public class DriverCommandJfrEvent extends Event {
+
+    /**
+     * Вид команды.
+     */
+    @Label("Команда")
+    public String command;
+
+    /**
+     * Цель команды: локатор, адрес или элемент.
+     */
+    @Label("Цель")
+    public String target;
+
+    /**
+     * Ключ xpath.properties локатора, если команда выполняется для элемента {@link LocatorChain}.
+     */
+    @Label("Локатор")
+    public String locator;
+
+    /**
+     * Итог команды: выполнена или имя исключения.
+     */
+    @Label("Итог")
+    public String outcome;
+}
@@ -0,0 +1,134 @@
+package helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * История длительности выполнения параметризованных тестов.
+ *
+ * Для каждого набора аргументов хранит сглаженную длительность прошлых запусков
+ * в локальном файле {@code test.durations.path}. История используется
+ * {@link TestSharding} только для запуска самых долгих наборов шарда первыми:
+ * состав шардов от неё не зависит.
+ *
+ * @author Сергей Лужин
+ */
+public class DurationHistory {
+
+    /**
+     * Вес нового замера при сглаживании длительности.
+     */
+    private static final double SMOOTHING = 0.5;
+
+    /**
+     * Путь к файлу истории.
+     */
+    private final Path path;
+
+    /**
+     * Длительности наборов аргументов в миллисекундах.
+     */
+    private final java.util.Properties durations = new java.util.Properties();
+
+    /**
+     * Загружает историю из файла; если файла нет, история пуста.
+     *
+     * @param path путь к файлу истории
+     *
+     * @author Сергей Лужин
+     */
+    public DurationHistory(Path path) {
+        this.path = path;
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                durations.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать историю длительностей " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Возвращает историю, путь к которой задан в test.properties.
+     *
+     * @return история длительностей по умолчанию
+     *
+     * @author Сергей Лужин
+     */
+    public static DurationHistory getDefault() {
+        return new DurationHistory(Paths.get(testProperties.testDurationsPath()));
+    }
+
+    /**
+     * Формирует идентификатор набора аргументов теста.
+     *
+     * @param arguments аргументы параметризованного теста
+     * @return идентификатор набора
+     *
+     * @author Сергей Лужин
+     */
+    public static String caseId(Object... arguments) {
+        return Arrays.stream(arguments).map(String::valueOf).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Возвращает ожидаемую длительность набора аргументов.
+     * Для новых наборов возвращается средняя длительность известных наборов,
+     * чтобы они не оказывались всегда в конце очереди.
+     *
+     * @param caseId идентификатор набора
+     * @return ожидаемая длительность в миллисекундах
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized long estimate(String caseId) {
+        String known = durations.getProperty(caseId);
+        if (known != null) {
+            return Long.parseLong(known);
+        }
+        return (long) durations.values().stream()
+                .mapToLong(value -> Long.parseLong((String) value))
+                .average()
+                .orElse(0);
+    }
+
+    /**
+     * Учитывает новый замер длительности и сохраняет историю в файл.
+     *
+     * @param caseId     идентификатор набора
+     * @param durationMs длительность выполнения в миллисекундах
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized void record(String caseId, long durationMs) {
+        String known = durations.getProperty(caseId);
+        long smoothed = known == null
+                ? durationMs
+                : Math.round(Long.parseLong(known) * (1 - SMOOTHING) + durationMs * SMOOTHING);
+        durations.setProperty(caseId, Long.toString(smoothed));
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                durations.store(out, "Длительности наборов тестовых данных, мс");
+            }
+            // Атомарная замена, чтобы прерванная запись не испортила историю
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить историю длительностей " + path, e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package helpers;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import java.lang.reflect.Method;
+
+/**
+ * Расширение JUnit, замеряющее длительность каждого вызова параметризованного теста
+ * и записывающее её в {@link DurationHistory} по набору аргументов.
+ *
+ * @author Сергей Лужин
+ */
+public class DurationRecorder implements InvocationInterceptor {
+
+    /**
+     * Замеряет длительность вызова параметризованного теста.
+     * Длительность записывается и при падении теста: упавший набор тоже занимает время шарда.
+     *
+     * @param invocation        вызов тестового метода
+     * @param invocationContext контекст вызова с аргументами теста
+     * @param extensionContext  контекст расширения
+     * @throws Throwable исключение, выброшенное тестом
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+                                            ReflectiveInvocationContext<Method> invocationContext,
+                                            ExtensionContext extensionContext) throws Throwable {
+        long start = System.currentTimeMillis();
+        try {
+            invocation.proceed();
+        } finally {
+            long durationMs = System.currentTimeMillis() - start;
+            DurationHistory.getDefault().record(DurationHistory.caseId(invocationContext.getArguments().toArray()), durationMs);
+            System.out.println("[DURATION] " + extensionContext.getDisplayName() + ": " + durationMs + " мс");
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package helpers;
+
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Сторож зависаний тестов и шагов.
+ *
+ * Для теста или шага заводится бюджет времени ({@code watchdog.test.budget.seconds},
+ * {@code watchdog.step.budget.seconds}). Если бюджет исчерпан, сторож снимает диагностику:
+ * дамп потоков, текущий адрес, положение прокрутки, зарегистрированные счётчики
+ * (например, количество собранных товаров) и последний скриншот, после чего закрывает
+ * сессию браузера и прерывает поток теста. Диагностика прикладывается к отчёту
+ * в потоке теста через {@link HangWatchdogExtension}.
+ *
+ * @author Сергей Лужин
+ */
+public class HangWatchdog {
+
+    /**
+     * Поток, отсчитывающий бюджеты.
+     */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hang-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Сколько последних счётчиков хранится для потока: потоки нагрузочного режима
+     * и параллельной пагинации создают страницы постоянно и не очищают счётчики.
+     */
+    private static final int MAX_PROBES_PER_THREAD = 5;
+
+    /**
+     * Счётчики состояния, зарегистрированные потоками тестов.
+     */
+    private static final Map<Thread, List<Map.Entry<String, Supplier<?>>>> PROBES = new ConcurrentHashMap<>();
+
+    /**
+     * Диагностика сработавшего сторожа по потокам тестов.
+     */
+    private static final Map<Thread, Report> REPORTS = new ConcurrentHashMap<>();
+
+    /**
+     * Начинает отсчёт бюджета для текущего потока.
+     *
+     * @param name          название теста или шага
+     * @param budgetSeconds бюджет в секундах; 0 и меньше — без ограничения
+     * @return отсчёт, который нужно закрыть по завершении теста или шага
+     *
+     * @author Сергей Лужин
+     */
+    public static Watch watch(String name, long budgetSeconds) {
+        Watch watch = new Watch();
+        if (!testProperties.watchdogEnabled() || budgetSeconds <= 0) {
+            return watch;
+        }
+        Thread thread = Thread.currentThread();
+        WebDriver driver = Driver.getWebDriver();
+        watch.timer = TIMER.schedule(() -> fire(watch, name, budgetSeconds, thread, driver), budgetSeconds, TimeUnit.SECONDS);
+        return watch;
+    }
+
+    /**
+     * Регистрирует счётчик состояния текущего потока, значение которого попадёт в диагностику.
+     * Хранятся только последние {@link #MAX_PROBES_PER_THREAD} счётчиков потока.
+     *
+     * @param label название счётчика
+     * @param probe источник значения
+     *
+     * @author Сергей Лужин
+     */
+    public static void probe(String label, Supplier<?> probe) {
+        List<Map.Entry<String, Supplier<?>>> probes = PROBES.computeIfAbsent(Thread.currentThread(), k -> new CopyOnWriteArrayList<>());
+        probes.add(new AbstractMap.SimpleEntry<>(label, probe));
+        while (probes.size() > MAX_PROBES_PER_THREAD) {
+            probes.remove(0);
+        }
+    }
+
+    /**
+     * Забывает счётчики текущего потока.
+     *
+     * @author Сергей Лужин
+     */
+    public static void clearProbes() {
+        PROBES.remove(Thread.currentThread());
+    }
+
+    /**
+     * Возвращает и забывает диагностику сработавшего для текущего потока сторожа.
+     *
+     * @return диагностика или null, если сторож не срабатывал
+     *
+     * @author Сергей Лужин
+     */
+    public static Report takeReport() {
+        return REPORTS.remove(Thread.currentThread());
+    }
+
+    /**
+     * Снимает диагностику зависшего потока, закрывает его сессию браузера и прерывает поток.
+     * Если отсчёт закрыли, пока снималась диагностика, тест успел завершиться сам:
+     * диагностика отбрасывается, а сессия и поток не трогаются.
+     *
+     * @param watch         сработавший отсчёт
+     * @param name          название теста или шага
+     * @param budgetSeconds исчерпанный бюджет
+     * @param thread        зависший поток
+     * @param driver        сессия браузера зависшего потока
+     *
+     * @author Сергей Лужин
+     */
+    private static void fire(Watch watch, String name, long budgetSeconds, Thread thread, WebDriver driver) {
+        synchronized (watch) {
+            if (watch.closed || REPORTS.containsKey(thread)) {
+                return;
+            }
+        }
+        String summary = "'" + name + "' не завершился за " + budgetSeconds + " с";
+        System.out.println("[WATCHDOG] " + summary + ", снимаем диагностику и закрываем браузер");
+
+        WebDriver base = driver instanceof EventFiringWebDriver ? ((EventFiringWebDriver) driver).getWrappedDriver() : driver;
+        StringBuilder text = new StringBuilder(summary).append("\n\n");
+        text.append("Адрес: ").append(base == null ? "нет сессии" : limited(base::getCurrentUrl)).append('\n');
+        if (base instanceof JavascriptExecutor) {
+            text.append("Прокрутка: ").append(limited(() -> ((JavascriptExecutor) base).executeScript(
+                    "return window.pageYOffset + ' из ' + document.body.scrollHeight + ' (окно ' + window.innerHeight + ')';")))
+                    .append('\n');
+        }
+        int index = 1;
+        for (Map.Entry<String, Supplier<?>> probe : PROBES.getOrDefault(thread, new CopyOnWriteArrayList<>())) {
+            text.append(index++).append(". ").append(probe.getKey()).append(": ").append(limited(probe.getValue()::get)).append('\n');
+        }
+        byte[] screenshot = null;
+        if (base instanceof TakesScreenshot && Driver.supportsScreenshots()) {
+            Object png = limited(() -> ((TakesScreenshot) base).getScreenshotAs(OutputType.BYTES));
+            screenshot = png instanceof byte[] ? (byte[]) png : null;
+        }
+        text.append("\nДамп потоков:\n").append(threadDump());
+
+        // Закрытие отсчёта ждёт этого блока, поэтому после close() прерывание и диагностика уже на месте
+        synchronized (watch) {
+            if (watch.closed) {
+                System.out.println("[WATCHDOG] '" + name + "' завершился, пока снималась диагностика, отбрасываем её");
+                return;
+            }
+            REPORTS.put(thread, new Report(summary, text.toString(), screenshot));
+            if (driver != null) {
+                Driver.abort(driver);
+            }
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Выполняет действие не дольше {@code watchdog.diagnostics.timeout.seconds}:
+     * зависший браузер не должен подвешивать и сторожа.
+     *
+     * @param action действие
+     * @return результат или описание ошибки
+     *
+     * @author Сергей Лужин
+     */
+    private static Object limited(Callable<?> action) {
+        CompletableFuture<Object> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return action.call();
+            } catch (Exception e) {
+                return "недоступно: " + e.getClass().getSimpleName();
+            }
+        });
+        try {
+            return result.get(testProperties.watchdogDiagnosticsTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return "недоступно: " + e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Возвращает полный дамп потоков JVM со стеками и удерживаемыми блокировками.
+     *
+     * @return дамп потоков
+     *
+     * @author Сергей Лужин
+     */
+    private static String threadDump() {
+        StringBuilder dump = new StringBuilder();
+        for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+            dump.append('"').append(info.getThreadName()).append("\" ").append(info.getThreadState());
+            if (info.getLockName() != null) {
+                dump.append(" on ").append(info.getLockName());
+            }
+            if (info.getLockOwnerName() != null) {
+                dump.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+            }
+            dump.append('\n');
+            for (StackTraceElement frame : info.getStackTrace()) {
+                dump.append("    at ").append(frame).append('\n');
+            }
+            dump.append('\n');
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Отсчёт бюджета теста или шага.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Watch implements AutoCloseable {
+
+        /**
+         * Отложенное срабатывание сторожа или null, если бюджет не ограничен.
+         */
+        private volatile ScheduledFuture<?> timer;
+
+        /**
+         * Признак закрытого отсчёта; проверяется сработавшим сторожем под блокировкой отсчёта.
+         */
+        private boolean closed;
+
+        /**
+         * Останавливает отсчёт бюджета. Если сторож уже снимает диагностику, она будет отброшена;
+         * если уже прерывает поток, метод дожидается окончания, чтобы прерывание не досталось следующему тесту.
+         *
+         * @author Сергей Лужин
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Диагностика сработавшего сторожа.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Report {
+
+        private final String summary;
+        private final String text;
+        private final byte[] screenshot;
+
+        Report(String summary, String text, byte[] screenshot) {
+            this.summary = summary;
+            this.text = text;
+            this.screenshot = screenshot;
+        }
+
+        /**
+         * Возвращает краткое описание зависания.
+         *
+         * @return описание зависания
+         *
+         * @author Сергей Лужин
+         */
+        public String getSummary() {
+            return summary;
+        }
+
+        /**
+         * Прикладывает диагностику и последний скриншот к отчёту Allure.
+         *
+         * @author Сергей Лужин
+         */
+        public void attach() {
+            Allure.addAttachment("Зависание: диагностика", text);
+            if (screenshot != null) {
+                Allure.addAttachment("Зависание: последний скриншот", new ByteArrayInputStream(screenshot));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package helpers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+import java.lang.reflect.Method;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Расширение JUnit, ограничивающее время каждого теста бюджетом {@code watchdog.test.budget.seconds}
+ * через {@link HangWatchdog}. Если сторож сработал для теста или одного из его шагов,
+ * тест падает с приложенной к отчёту диагностикой.
+ *
+ * @author Сергей Лужин
+ */
+public class HangWatchdogExtension implements InvocationInterceptor {
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation,
+                                    ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        watch(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+                                            ReflectiveInvocationContext<Method> invocationContext,
+                                            ExtensionContext extensionContext) throws Throwable {
+        watch(invocation, extensionContext);
+    }
+
+    /**
+     * Выполняет тест под сторожем и превращает его срабатывание в падение теста с диагностикой.
+     *
+     * @param invocation       вызов тестового метода
+     * @param extensionContext контекст расширения
+     * @throws Throwable исключение теста или ошибка о превышении бюджета
+     *
+     * @author Сергей Лужин
+     */
+    private static void watch(Invocation<Void> invocation, ExtensionContext extensionContext) throws Throwable {
+        Throwable failure = null;
+        HangWatchdog.Watch watch = HangWatchdog.watch("Тест " + extensionContext.getDisplayName(),
+                testProperties.watchdogTestBudgetSeconds());
+        try {
+            invocation.proceed();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            watch.close();
+            HangWatchdog.clearProbes();
+            // Флаг прерывания от сторожа не должен помешать закрытию теста
+            Thread.interrupted();
+        }
+
+        HangWatchdog.Report report = HangWatchdog.takeReport();
+        if (report != null) {
+            report.attach();
+            Assertions.fail(report.getSummary(), failure);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
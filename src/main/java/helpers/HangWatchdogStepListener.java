@@ -0,0 +1,37 @@
+package helpers;
+
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Слушатель шагов Allure, ограничивающий время каждого шага бюджетом
+ * {@code watchdog.step.budget.seconds} через {@link HangWatchdog}.
+ * Подключается через {@code META-INF/services/io.qameta.allure.listener.StepLifecycleListener}.
+ *
+ * @author Сергей Лужин
+ */
+public class HangWatchdogStepListener implements StepLifecycleListener {
+
+    /**
+     * Отсчёты начатых шагов текущего потока; вложенные шаги завершаются раньше внешних.
+     */
+    private final ThreadLocal<Deque<HangWatchdog.Watch>> watches = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeStepStart(StepResult result) {
+        watches.get().push(HangWatchdog.watch("Шаг " + result.getName(), testProperties.watchdogStepBudgetSeconds()));
+    }
+
+    @Override
+    public void afterStepStop(StepResult result) {
+        HangWatchdog.Watch watch = watches.get().poll();
+        if (watch != null) {
+            watch.close();
+        }
+    }
+}
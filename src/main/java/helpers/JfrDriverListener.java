@@ -0,0 +1,117 @@
+package helpers;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+
+/**
+ * Слушатель событий WebDriver, записывающий команды событиями {@link DriverCommandJfrEvent}.
+ *
+ * Регистрируется раньше слушателя вложений, поэтому время снятия скриншотов
+ * после команды в длительность самой команды не попадает.
+ *
+ * @author Сергей Лужин
+ */
+public class JfrDriverListener extends AbstractWebDriverEventListener {
+
+    /**
+     * Начатая команда текущего потока.
+     */
+    private final ThreadLocal<DriverCommandJfrEvent> current = new ThreadLocal<>();
+
+    @Override
+    public void beforeNavigateTo(String url, WebDriver driver) {
+        begin("navigateTo", url);
+    }
+
+    @Override
+    public void afterNavigateTo(String url, WebDriver driver) {
+        commit("выполнена");
+    }
+
+    @Override
+    public void beforeFindBy(By by, WebElement element, WebDriver driver) {
+        begin("findBy", by.toString());
+        if (by instanceof LocatorChain.ChainBy) {
+            // Поиск по цепочке ещё не начался, поэтому текущий ключ потока её ключом пока не стал
+            current.get().locator = ((LocatorChain.ChainBy) by).getKey();
+        }
+    }
+
+    @Override
+    public void afterFindBy(By by, WebElement element, WebDriver driver) {
+        commit("выполнена");
+    }
+
+    @Override
+    public void beforeClickOn(WebElement element, WebDriver driver) {
+        begin("clickOn", String.valueOf(element));
+    }
+
+    @Override
+    public void afterClickOn(WebElement element, WebDriver driver) {
+        commit("выполнена");
+    }
+
+    @Override
+    public void beforeChangeValueOf(WebElement element, WebDriver driver, CharSequence[] keysToSend) {
+        begin("changeValueOf", String.valueOf(element));
+    }
+
+    @Override
+    public void afterChangeValueOf(WebElement element, WebDriver driver, CharSequence[] keysToSend) {
+        commit("выполнена");
+    }
+
+    @Override
+    public void beforeScript(String script, WebDriver driver) {
+        begin("executeScript", script.length() > 200 ? script.substring(0, 200) + "…" : script);
+    }
+
+    @Override
+    public void afterScript(String script, WebDriver driver) {
+        commit("выполнена");
+    }
+
+    @Override
+    public void beforeGetText(WebElement element, WebDriver driver) {
+        begin("getText", String.valueOf(element));
+    }
+
+    @Override
+    public void afterGetText(WebElement element, WebDriver driver, String text) {
+        commit("выполнена");
+    }
+
+    /**
+     * Завершает начатую команду с именем исключения в качестве итога.
+     *
+     * @param throwable исключение команды
+     * @param driver    драйвер
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void onException(Throwable throwable, WebDriver driver) {
+        commit(throwable.getClass().getSimpleName());
+    }
+
+    private void begin(String command, String target) {
+        DriverCommandJfrEvent event = new DriverCommandJfrEvent();
+        event.command = command;
+        event.target = target;
+        event.locator = LocatorChain.currentKey();
+        event.begin();
+        current.set(event);
+    }
+
+    private void commit(String outcome) {
+        DriverCommandJfrEvent event = current.get();
+        current.remove();
+        if (event != null && event.shouldCommit()) {
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
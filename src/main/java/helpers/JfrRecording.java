@@ -0,0 +1,53 @@
+package helpers;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+
+/**
+ * Запись Java Flight Recorder на всё время тестового прогона.
+ *
+ * Включается системным свойством {@code jfr.recording.file} (профиль Maven {@code jfr}).
+ * Запись ведётся с настройками profile и сохраняется в файл при завершении JVM,
+ * так что в одном файле видны сборка мусора, аллокации и потоки рядом с событиями
+ * шагов, ожиданий, команд WebDriver и вложений.
+ *
+ * @author Сергей Лужин
+ */
+public class JfrRecording {
+
+    /**
+     * Текущая запись или null, если она не запускалась.
+     */
+    private static Recording recording;
+
+    /**
+     * Запускает запись, если задан {@code jfr.recording.file} и запись ещё не идёт.
+     *
+     * @author Сергей Лужин
+     */
+    public static synchronized void startIfRequested() {
+        String file = System.getProperty("jfr.recording.file", "");
+        if (file.isEmpty() || recording != null) {
+            return;
+        }
+
+        try {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("tests");
+            recording.setToDisk(true);
+            recording.setDumpOnExit(true);
+            recording.setDestination(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось подготовить запись JFR в " + file, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Не удалось прочитать настройки JFR profile", e);
+        }
+        recording.start();
+        System.out.println("[JFR] Запись запущена, файл " + file);
+    }
+}
@@ -0,0 +1,52 @@
+package helpers;
+
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Слушатель шагов Allure, записывающий каждый шаг событием {@link StepJfrEvent}.
+ * Подключается через {@code META-INF/services/io.qameta.allure.listener.StepLifecycleListener}.
+ *
+ * @author Сергей Лужин
+ */
+public class JfrStepListener implements StepLifecycleListener {
+
+    /**
+     * Начатые события шагов текущего потока; вложенные шаги завершаются раньше внешних.
+     */
+    private final ThreadLocal<Deque<StepJfrEvent>> events = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Начинает событие шага.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void beforeStepStart(StepResult result) {
+        StepJfrEvent event = new StepJfrEvent();
+        event.begin();
+        events.get().push(event);
+    }
+
+    /**
+     * Завершает событие шага с его итогом.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void afterStepStop(StepResult result) {
+        StepJfrEvent event = events.get().poll();
+        if (event != null && event.shouldCommit()) {
+            event.name = result.getName();
+            event.outcome = result.getStatus() == null ? "" : result.getStatus().value();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накопитель задержек шагов для нагрузочного режима.
+ * Хранит все замеры, чтобы по ним считались точные перцентили.
+ *
+ * @author Сергей Лужин
+ */
+public class LatencyStatistics {
+
+    /**
+     * Перцентили, выводимые в отчёте.
+     */
+    private static final double[] PERCENTILES = {50, 90, 95, 99};
+
+    /**
+     * Замеры в наносекундах по названиям шагов в порядке первого появления.
+     */
+    private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+
+    /**
+     * Учитывает один замер шага.
+     *
+     * @param step       название шага
+     * @param startNanos время начала шага, полученное из {@link System#nanoTime()}
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized void record(String step, long startNanos) {
+        samples.computeIfAbsent(step, k -> new ArrayList<>()).add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Возвращает отчёт с количеством замеров, перцентилями и максимумом задержки каждого шага.
+     *
+     * @return отчёт о задержках
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder("[LOAD] Задержки шагов, мс (p50 / p90 / p95 / p99 / максимум):\n");
+        samples.forEach((step, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+            report.append("  ").append(step).append(": ").append(sorted.length).append(" раз, ");
+            for (double percentile : PERCENTILES) {
+                report.append(TimeUnit.NANOSECONDS.toMillis(percentile(sorted, percentile))).append(" / ");
+            }
+            report.append(TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1])).append('\n');
+        });
+        return report.toString();
+    }
+
+    /**
+     * Возвращает перцентиль отсортированных значений методом ближайшего ранга.
+     *
+     * @param sorted     отсортированные значения
+     * @param percentile перцентиль от 0 до 100
+     * @return значение перцентиля
+     *
+     * @author Сергей Лужин
+     */
+    static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+    }
+}
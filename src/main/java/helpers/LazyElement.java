@@ -0,0 +1,186 @@
+package helpers;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+/**
+ * Ленивая ссылка на элемент страницы.
+ *
+ * Элемент ищется при первом обращении по цепочке вариантов {@link LocatorChain}, после чего кэшируется.
+ * Повторный поиск выполняется только если закэшированный элемент устарел
+ * ({@link StaleElementReferenceException}). Количество поисков учитывается
+ * для каждого элемента и суммарно по названиям элементов.
+ *
+ * @author Сергей Лужин
+ */
+public class LazyElement {
+
+    /**
+     * Количество поисков элементов по их названиям, общее для всех страниц.
+     */
+    private static final Map<String, AtomicInteger> RESOLUTIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Название элемента для логов и статистики.
+     */
+    private final String name;
+
+    /**
+     * Варианты локатора элемента.
+     */
+    private final LocatorChain locator;
+
+    /**
+     * Механизм ожиданий страницы, через который ищется элемент.
+     */
+    private final Waiter waiter;
+
+    /**
+     * Условие, которого ждёт поиск элемента.
+     */
+    private final Function<By, ? extends Function<? super WebDriver, WebElement>> condition;
+
+    /**
+     * Закэшированный элемент или null, если элемент ещё не искали или он устарел.
+     */
+    private WebElement element;
+
+    /**
+     * Количество поисков этого элемента.
+     */
+    private int resolutionCount;
+
+    /**
+     * Создаёт ленивую ссылку на элемент, который ищется по присутствию в DOM.
+     * Поиск элемента при этом не выполняется.
+     *
+     * @param name    название элемента
+     * @param locator варианты локатора элемента
+     * @param waiter  механизм ожиданий страницы
+     *
+     * @author Сергей Лужин
+     */
+    public LazyElement(String name, LocatorChain locator, Waiter waiter) {
+        this(name, locator, waiter, ExpectedConditions::presenceOfElementLocated);
+    }
+
+    /**
+     * Создаёт ленивую ссылку на элемент, который ищется по указанному условию.
+     * Поиск элемента при этом не выполняется.
+     *
+     * @param name      название элемента
+     * @param locator   варианты локатора элемента
+     * @param waiter    механизм ожиданий страницы
+     * @param condition условие поиска, например {@code ExpectedConditions::visibilityOfElementLocated}
+     *
+     * @author Сергей Лужин
+     */
+    public LazyElement(String name, LocatorChain locator, Waiter waiter,
+                       Function<By, ? extends Function<? super WebDriver, WebElement>> condition) {
+        this.name = name;
+        this.locator = locator;
+        this.waiter = waiter;
+        this.condition = condition;
+    }
+
+    /**
+     * Возвращает элемент, выполняя поиск только при первом обращении.
+     *
+     * @return веб-элемент
+     *
+     * @author Сергей Лужин
+     */
+    public WebElement get() {
+        if (element == null) {
+            element = locator.until(waiter, name, condition);
+            resolutionCount++;
+            RESOLUTIONS.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+        }
+        return element;
+    }
+
+    /**
+     * Кликает по элементу.
+     *
+     * @author Сергей Лужин
+     */
+    public void click() {
+        perform(WebElement::click);
+    }
+
+    /**
+     * Вводит текст в элемент.
+     *
+     * @param keys последовательность символов
+     *
+     * @author Сергей Лужин
+     */
+    public void sendKeys(CharSequence... keys) {
+        perform(element -> element.sendKeys(keys));
+    }
+
+    /**
+     * Выполняет действие над элементом; если элемент устарел, ищет его заново и повторяет действие один раз.
+     *
+     * @param action действие над элементом
+     *
+     * @author Сергей Лужин
+     */
+    public void perform(Consumer<WebElement> action) {
+        // Ключ локатора попадает и в события самого действия (клик, ввод текста), а не только поиска
+        locator.scoped(() -> {
+            try {
+                action.accept(get());
+            } catch (StaleElementReferenceException e) {
+                System.out.println("[ELEMENT] Элемент '" + name + "' устарел, ищем заново");
+                element = null;
+                action.accept(get());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Возвращает количество поисков этого элемента.
+     *
+     * @return количество поисков
+     *
+     * @author Сергей Лужин
+     */
+    public int getResolutionCount() {
+        return resolutionCount;
+    }
+
+    /**
+     * Возвращает отчёт о количестве поисков элементов по их названиям.
+     *
+     * @return отчёт о поисках элементов
+     *
+     * @author Сергей Лужин
+     */
+    public static String statisticsReport() {
+        StringBuilder report = new StringBuilder("[ELEMENT] Поиски элементов:\n");
+        new TreeMap<>(RESOLUTIONS).forEach((name, count) -> report.append("  ").append(name).append(": ").append(count).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Очищает накопленную статистику поисков.
+     *
+     * @author Сергей Лужин
+     */
+    public static void resetStatistics() {
+        RESOLUTIONS.clear();
+    }
+}
@@ -0,0 +1,488 @@
+package helpers;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Цепочка запасных XPath-локаторов одного элемента.
+ *
+ * В xpath.properties значение ключа может содержать несколько вариантов через {@code ||}
+ * в порядке предпочтения. Варианты опрашиваются в одном ожидании {@link Waiter}: сначала только
+ * самый успешный вариант, а каждые {@code locator.candidate.timeout.ms} к опросу добавляется
+ * следующий. Так смена вёрстки стоит несколько коротких таймаутов, а не полный таймаут на каждый поиск.
+ *
+ * Для каждого варианта хранится число успехов и промахов в локальном файле {@code locator.stats.path},
+ * и следующий запуск начинает с варианта, который чаще находил элемент.
+ *
+ * Пока цепочка ищет элемент, её ключ xpath.properties доступен через {@link #currentKey()}:
+ * по нему события {@link WaitJfrEvent} и {@link DriverCommandJfrEvent} связываются с локатором.
+ *
+ * @author Сергей Лужин
+ */
+public class LocatorChain {
+
+    /**
+     * Разделитель вариантов в значении ключа; в XPath такой последовательности не бывает.
+     */
+    public static final String SEPARATOR = "||";
+
+    /**
+     * Успехи и промахи вариантов: прочитанные из файла и набранные в этой JVM;
+     * ключ — XPath варианта до подстановки значений.
+     */
+    private static Map<String, long[]> statistics;
+
+    /**
+     * Успехи и промахи, набранные в этой JVM и ещё не сброшенные в файл.
+     */
+    private static final Map<String, long[]> unsaved = new HashMap<>();
+
+    /**
+     * Ключ xpath.properties цепочки, которая сейчас ищет элемент в этом потоке.
+     */
+    private static final ThreadLocal<String> CURRENT_KEY = new ThreadLocal<>();
+
+    /**
+     * Ключ xpath.properties, из которого взята цепочка.
+     */
+    private final String key;
+
+    /**
+     * XPath вариантов до подстановки значений в порядке из xpath.properties.
+     */
+    private final List<String> templates;
+
+    /**
+     * XPath вариантов после подстановки значений.
+     */
+    private final List<String> xpaths;
+
+    /**
+     * Создаёт цепочку из значения ключа xpath.properties.
+     *
+     * @param key   ключ xpath.properties, например "ym.search.button"
+     * @param chain варианты XPath через {@link #SEPARATOR}
+     *
+     * @author Сергей Лужин
+     */
+    public LocatorChain(String key, String chain) {
+        this.key = key;
+        this.templates = new ArrayList<>();
+        for (String candidate : chain.split("\\|\\|")) {
+            if (!candidate.trim().isEmpty()) {
+                templates.add(candidate.trim());
+            }
+        }
+        this.xpaths = new ArrayList<>(templates);
+    }
+
+    private LocatorChain(String key, List<String> templates, List<String> xpaths) {
+        this.key = key;
+        this.templates = templates;
+        this.xpaths = xpaths;
+    }
+
+    /**
+     * Возвращает цепочку, в каждом варианте которой метка заменена значением.
+     * Статистика при этом ведётся по исходным вариантам.
+     *
+     * @param placeholder метка, например "*brand*"
+     * @param value       подставляемое значение
+     * @return цепочка с подставленным значением
+     *
+     * @author Сергей Лужин
+     */
+    public LocatorChain with(String placeholder, String value) {
+        List<String> replaced = new ArrayList<>();
+        for (String xpath : xpaths) {
+            replaced.add(xpath.replace(placeholder, value));
+        }
+        return new LocatorChain(key, templates, replaced);
+    }
+
+    /**
+     * Ждёт, пока условие выполнится хотя бы для одного варианта, со стандартным таймаутом.
+     *
+     * @param waiter    механизм ожиданий страницы
+     * @param name      название условия для логов и статистики
+     * @param condition условие для локатора, например {@code ExpectedConditions::visibilityOfElementLocated}
+     * @param <T>       тип результата условия
+     * @return результат условия для первого подошедшего варианта
+     * @throws TimeoutException если ни один вариант не подошёл
+     *
+     * @author Сергей Лужин
+     */
+    public <T> T until(Waiter waiter, String name, Function<By, ? extends Function<? super WebDriver, T>> condition) {
+        List<Integer> order = order();
+        long start = System.nanoTime();
+        long candidateTimeoutMs = testProperties.locatorCandidateTimeoutMs();
+        int[] matched = {-1};
+        int[] tried = {1};
+
+        T result;
+        try {
+            result = scoped(() -> waiter.until(name, driver -> {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                tried[0] = Math.max(tried[0], (int) Math.min(order.size(), elapsedMs / Math.max(1, candidateTimeoutMs) + 1));
+                for (int i = 0; i < tried[0]; i++) {
+                    int candidate = order.get(i);
+                    try {
+                        T value = condition.apply(By.xpath(xpaths.get(candidate))).apply(driver);
+                        if (value != null && !Boolean.FALSE.equals(value)) {
+                            matched[0] = candidate;
+                            return value;
+                        }
+                    } catch (NotFoundException | StaleElementReferenceException e) {
+                        // Следующий вариант
+                    }
+                }
+                return null;
+            }));
+        } catch (TimeoutException e) {
+            // Все опрошенные варианты не подошли за отведённое время
+            if (templates.size() > 1) {
+                recordMisses(order, tried[0], -1,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), candidateTimeoutMs);
+            }
+            throw e;
+        }
+
+        if (templates.size() > 1) {
+            recordMisses(order, tried[0], matched[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), candidateTimeoutMs);
+            record(templates.get(matched[0]), true);
+            if (order.get(0) != matched[0]) {
+                System.out.println("[LOCATOR] '" + name + "' найден запасным вариантом: " + xpaths.get(matched[0]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Учитывает промахи вариантов, которые опрашивались весь свой интервал и не подошли.
+     * Вариант, начавший опрашиваться незадолго до совпадения другого, ещё не успел проявить себя.
+     *
+     * @param order              порядок опроса вариантов
+     * @param tried              количество опрошенных вариантов
+     * @param matched            номер подошедшего варианта или -1
+     * @param elapsedMs          длительность ожидания
+     * @param candidateTimeoutMs интервал, через который к опросу добавляется следующий вариант
+     *
+     * @author Сергей Лужин
+     */
+    private void recordMisses(List<Integer> order, int tried, int matched, long elapsedMs, long candidateTimeoutMs) {
+        for (int i = 0; i < tried && order.get(i) != matched; i++) {
+            if (elapsedMs >= (i + 1) * candidateTimeoutMs) {
+                record(templates.get(order.get(i)), false);
+            }
+        }
+    }
+
+    /**
+     * Возвращает цепочку как {@link By} для поиска без ожидания: варианты опрашиваются по порядку,
+     * и возвращаются элементы первого варианта, который что-то нашёл.
+     * Если не нашёл ни один вариант, промахи не учитываются: элемента может просто не быть на странице.
+     *
+     * @return локатор цепочки
+     *
+     * @author Сергей Лужин
+     */
+    public By asBy() {
+        return new ChainBy();
+    }
+
+    /**
+     * Локатор цепочки, по которому {@link JfrDriverListener} узнаёт ключ xpath.properties
+     * ещё до того, как WebDriver начнёт поиск.
+     *
+     * @author Сергей Лужин
+     */
+    public class ChainBy extends By {
+
+        /**
+         * Возвращает ключ xpath.properties цепочки.
+         *
+         * @return ключ xpath.properties
+         *
+         * @author Сергей Лужин
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            return scoped(() -> {
+                if (templates.size() == 1) {
+                    return context.findElements(By.xpath(xpaths.get(0)));
+                }
+                List<Integer> order = order();
+                for (int i = 0; i < order.size(); i++) {
+                    int candidate = order.get(i);
+                    List<WebElement> found = context.findElements(By.xpath(xpaths.get(candidate)));
+                    if (!found.isEmpty()) {
+                        for (int missed = 0; missed < i; missed++) {
+                            record(templates.get(order.get(missed)), false);
+                        }
+                        record(templates.get(candidate), true);
+                        return found;
+                    }
+                }
+                return Collections.<WebElement>emptyList();
+            });
+        }
+
+        @Override
+        public String toString() {
+            return templates.size() == 1
+                    ? "By.xpath: " + xpaths.get(0)
+                    : "By.chain: " + String.join(" " + SEPARATOR + " ", xpaths);
+        }
+    }
+
+    /**
+     * Возвращает XPath вариантов в порядке опроса для скриптов, выполняемых в браузере.
+     *
+     * @return XPath вариантов от самого успешного
+     *
+     * @author Сергей Лужин
+     */
+    public List<String> rankedXpaths() {
+        List<String> ranked = new ArrayList<>();
+        for (int candidate : order()) {
+            ranked.add(xpaths.get(candidate));
+        }
+        return ranked;
+    }
+
+    /**
+     * Возвращает ключ xpath.properties, из которого взята цепочка.
+     *
+     * @return ключ xpath.properties
+     *
+     * @author Сергей Лужин
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Выполняет действие, пока ключ этой цепочки считается текущим локатором потока.
+     * Вложенные вызовы восстанавливают ключ внешней цепочки.
+     *
+     * @param action действие с элементом цепочки
+     * @param <T>    тип результата действия
+     * @return результат действия
+     *
+     * @author Сергей Лужин
+     */
+    <T> T scoped(Supplier<T> action) {
+        String outer = CURRENT_KEY.get();
+        CURRENT_KEY.set(key);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                CURRENT_KEY.remove();
+            } else {
+                CURRENT_KEY.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Возвращает ключ xpath.properties цепочки, которая сейчас ищет элемент или действует над ним в этом потоке.
+     *
+     * @return ключ xpath.properties или null вне поиска по цепочке
+     *
+     * @author Сергей Лужин
+     */
+    public static String currentKey() {
+        return CURRENT_KEY.get();
+    }
+
+    /**
+     * Возвращает XPath вариантов после подстановки значений в порядке из xpath.properties.
+     *
+     * @return XPath вариантов
+     *
+     * @author Сергей Лужин
+     */
+    List<String> getXpaths() {
+        return Collections.unmodifiableList(xpaths);
+    }
+
+    private List<Integer> order() {
+        if (templates.size() == 1) {
+            return Collections.singletonList(0);
+        }
+        synchronized (LocatorChain.class) {
+            return order(templates, statistics());
+        }
+    }
+
+    /**
+     * Возвращает порядок опроса вариантов: по доле успехов с поправкой Лапласа,
+     * при равенстве — в порядке из xpath.properties.
+     *
+     * @param templates  XPath вариантов до подстановки значений
+     * @param statistics успехи и промахи вариантов
+     * @return номера вариантов в порядке опроса
+     *
+     * @author Сергей Лужин
+     */
+    static List<Integer> order(List<String> templates, Map<String, long[]> statistics) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> -successRate(statistics.get(templates.get(i)))));
+        return order;
+    }
+
+    private static double successRate(long[] counts) {
+        if (counts == null) {
+            return 0.5;
+        }
+        return (counts[0] + 1.0) / (counts[0] + counts[1] + 2.0);
+    }
+
+    /**
+     * Разбирает счётчики варианта из файла статистики.
+     *
+     * @param value строка вида "успехи,промахи"
+     * @return успехи и промахи или null, если запись испорчена
+     *
+     * @author Сергей Лужин
+     */
+    static long[] parseCounts(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            long[] counts = {Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim())};
+            return counts[0] < 0 || counts[1] < 0 ? null : counts;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Учитывает успех или промах варианта в памяти; в файл счётчики попадают при {@link #flush()}.
+     *
+     * @param template XPath варианта до подстановки значений
+     * @param success  найден ли элемент этим вариантом
+     *
+     * @author Сергей Лужин
+     */
+    private static synchronized void record(String template, boolean success) {
+        int index = success ? 0 : 1;
+        statistics().computeIfAbsent(template, k -> new long[2])[index]++;
+        unsaved.computeIfAbsent(template, k -> new long[2])[index]++;
+    }
+
+    /**
+     * Дописывает набранные в этой JVM счётчики к файлу статистики.
+     * Файл перечитывается перед записью, чтобы не затереть счётчики других форков,
+     * и заменяется атомарно через временный файл с номером процесса в имени.
+     * Ошибки записи только выводятся в лог: статистика не должна ронять тест.
+     *
+     * @author Сергей Лужин
+     */
+    public static synchronized void flush() {
+        if (unsaved.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(testProperties.locatorStatsPath());
+        Path temp = path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            Map<String, long[]> merged = load(path);
+            unsaved.forEach((template, counts) -> {
+                long[] total = merged.computeIfAbsent(template, k -> new long[2]);
+                total[0] += counts[0];
+                total[1] += counts[1];
+            });
+
+            java.util.Properties file = new java.util.Properties();
+            merged.forEach((template, counts) -> file.setProperty(template, counts[0] + "," + counts[1]));
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                file.store(out, "Успехи и промахи вариантов локаторов");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            unsaved.clear();
+        } catch (IOException e) {
+            System.out.println("[LOCATOR] Не удалось сохранить статистику локаторов " + path + ": " + e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private static Map<String, long[]> statistics() {
+        if (statistics == null) {
+            Path path = Paths.get(testProperties.locatorStatsPath());
+            try {
+                statistics = load(path);
+            } catch (IOException e) {
+                System.out.println("[LOCATOR] Не удалось прочитать статистику локаторов " + path + ": " + e);
+                statistics = new HashMap<>();
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(LocatorChain::flush));
+        }
+        return statistics;
+    }
+
+    /**
+     * Читает файл статистики, пропуская испорченные записи.
+     *
+     * @param path путь к файлу статистики
+     * @return успехи и промахи вариантов; пустая карта, если файла нет
+     * @throws IOException если файл не удалось прочитать
+     *
+     * @author Сергей Лужин
+     */
+    private static Map<String, long[]> load(Path path) throws IOException {
+        Map<String, long[]> loaded = new HashMap<>();
+        if (!Files.exists(path)) {
+            return loaded;
+        }
+        java.util.Properties file = new java.util.Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            file.load(in);
+        }
+        for (String template : file.stringPropertyNames()) {
+            long[] counts = parseCounts(file.getProperty(template));
+            if (counts != null) {
+                loaded.put(template, counts);
+            }
+        }
+        return loaded;
+    }
+}
@@ -2,10 +2,6 @@ package helpers;
 
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import static helpers.Properties.testProperties;
 
 /**
  * Утилитный класс для определения текущего положения страницы
@@ -35,17 +31,22 @@ public class PageOffsetLocator {
         return  (currentBottom >= pageHeight - 50);
     }
 
-    public static boolean isStillAtBottomAfterWait(JavascriptExecutor js, WebDriver driver) {
-        WebDriverWait wait = new WebDriverWait(
-                driver,
-                testProperties.defaultTimeout()
-        );
-
+    /**
+     * Ждёт, что после подгрузки нового контента нижний край страницы сместится.
+     *
+     * @param js     экземпляр {@link JavascriptExecutor}, через который выполняются JS-выражения в браузере
+     * @param waiter механизм ожиданий страницы
+     *
+     * @return {true}, если за отведённое время страница не удлинилась, иначе {false}
+     *
+     * @author Сергей Лужин
+     */
+    public static boolean isStillAtBottomAfterWait(JavascriptExecutor js, Waiter waiter) {
         System.out.println("[WAIT] Ждём, что низ страницы сместится (появится новый контент)");
 
         try {
             // Ждём, пока условие "достигнут низ страницы" перестанет быть верным
-            wait.until(d -> !hasReachedBottomOfPage(js));
+            waiter.until("Низ страницы сместился", d -> !hasReachedBottomOfPage(js));
             System.out.println("[WAIT] Страница удлинилась, низ сместился");
             return false; // уже НЕ внизу
         } catch (TimeoutException e) {
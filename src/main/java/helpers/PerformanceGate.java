@@ -0,0 +1,371 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Статистическая проверка регрессий производительности шагов.
+ *
+ * Сравнивает длительности шагов из {@code perf.timings.path}, накопленные
+ * {@link StepTimingListener}, с базовыми замерами {@code perf.baseline.path}.
+ * Из текущих замеров берутся только последние {@code perf.gate.runs} запусков:
+ * иначе свежая регрессия растворяется в старых быстрых замерах и медиана почти не сдвигается.
+ * Для каждого шага считаются:
+ * сдвиг Ходжеса–Лемана (медиана попарных разностей текущих и базовых замеров)
+ * с доверительным интервалом уровня {@code 1 - perf.gate.alpha}
+ * и односторонний p-value критерия Манна–Уитни для гипотезы «шаг стал медленнее».
+ * Шаг считается регрессией, если p-value меньше {@code perf.gate.alpha}
+ * и сдвиг превышает {@code perf.gate.threshold.percent} процентов от базовой медианы.
+ *
+ * Запуск: {@code mvn -Pperf-gate process-classes}. С {@code -Dperf.gate.update.baseline=true}
+ * текущие замеры становятся новыми базовыми.
+ *
+ * @author Сергей Лужин
+ */
+public class PerformanceGate {
+
+    /**
+     * Результат сравнения одного шага.
+     */
+    static class StepComparison {
+        String step;
+        int baselineSamples;
+        int currentSamples;
+        double baselineMedian;
+        double currentMedian;
+        double shift;
+        double shiftLow;
+        double shiftHigh;
+        double pValue;
+        boolean regression;
+    }
+
+    private final Path timingsPath;
+    private final Path baselinePath;
+
+    /**
+     * Создаёт проверку для указанных файлов замеров.
+     *
+     * @param timingsPath  файл текущих замеров
+     * @param baselinePath файл базовых замеров
+     *
+     * @author Сергей Лужин
+     */
+    public PerformanceGate(Path timingsPath, Path baselinePath) {
+        this.timingsPath = timingsPath;
+        this.baselinePath = baselinePath;
+    }
+
+    /**
+     * Точка входа для профиля Maven {@code perf-gate}.
+     *
+     * @param args не используются
+     *
+     * @author Сергей Лужин
+     */
+    public static void main(String[] args) {
+        PerformanceGate gate = new PerformanceGate(
+                Paths.get(testProperties.perfTimingsPath()),
+                Paths.get(testProperties.perfBaselinePath())
+        );
+        if (Boolean.getBoolean("perf.gate.update.baseline")) {
+            gate.updateBaseline();
+            return;
+        }
+        gate.check(testProperties.perfGateThresholdPercent(), testProperties.perfGateAlpha(),
+                testProperties.perfGateMinSamples(), testProperties.perfGateRuns());
+    }
+
+    /**
+     * Делает текущие замеры базовыми, а файл текущих замеров очищает.
+     *
+     * @author Сергей Лужин
+     */
+    public void updateBaseline() {
+        if (!Files.exists(timingsPath)) {
+            throw new IllegalStateException("Нет замеров шагов " + timingsPath + ", нечего сохранять как базовые");
+        }
+        try {
+            if (baselinePath.getParent() != null) {
+                Files.createDirectories(baselinePath.getParent());
+            }
+            Files.move(timingsPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить базовые замеры " + baselinePath, e);
+        }
+        System.out.println("[PERF] Текущие замеры сохранены как базовые: " + baselinePath);
+    }
+
+    /**
+     * Сравнивает текущие замеры с базовыми, печатает отчёт и падает при регрессии.
+     *
+     * @param thresholdPercent допустимое замедление шага в процентах от базовой медианы
+     * @param alpha            уровень значимости
+     * @param minSamples       минимальное количество замеров шага с каждой стороны
+     * @param runs             количество последних запусков, замеры которых проверяются
+     * @throws IllegalStateException если хотя бы один шаг стал медленнее порога
+     *
+     * @author Сергей Лужин
+     */
+    public void check(double thresholdPercent, double alpha, int minSamples, int runs) {
+        Map<String, List<Long>> baseline = read(baselinePath, Integer.MAX_VALUE);
+        Map<String, List<Long>> current = read(timingsPath, runs);
+        if (baseline.isEmpty() || current.isEmpty()) {
+            System.out.println("[PERF] Нет базовых или текущих замеров, проверка пропущена");
+            return;
+        }
+
+        List<StepComparison> comparisons = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : current.entrySet()) {
+            List<Long> base = baseline.get(entry.getKey());
+            if (base == null || base.size() < minSamples || entry.getValue().size() < minSamples) {
+                skipped.add(entry.getKey());
+                continue;
+            }
+            comparisons.add(compare(entry.getKey(), toArray(base), toArray(entry.getValue()), thresholdPercent, alpha));
+        }
+
+        String report = report(comparisons, skipped, thresholdPercent, alpha, minSamples, runs);
+        System.out.println(report);
+
+        long regressions = comparisons.stream().filter(comparison -> comparison.regression).count();
+        if (regressions > 0) {
+            throw new IllegalStateException("Шагов с регрессией производительности: " + regressions + ", подробности в отчёте [PERF]");
+        }
+    }
+
+    /**
+     * Сравнивает замеры одного шага.
+     *
+     * @param step             название шага
+     * @param baseline         базовые замеры
+     * @param current          текущие замеры
+     * @param thresholdPercent допустимое замедление в процентах
+     * @param alpha            уровень значимости
+     * @return результат сравнения
+     *
+     * @author Сергей Лужин
+     */
+    static StepComparison compare(String step, double[] baseline, double[] current, double thresholdPercent, double alpha) {
+        StepComparison comparison = new StepComparison();
+        comparison.step = step;
+        comparison.baselineSamples = baseline.length;
+        comparison.currentSamples = current.length;
+        comparison.baselineMedian = median(baseline);
+        comparison.currentMedian = median(current);
+
+        double[] differences = new double[baseline.length * current.length];
+        int k = 0;
+        for (double c : current) {
+            for (double b : baseline) {
+                differences[k++] = c - b;
+            }
+        }
+        Arrays.sort(differences);
+        comparison.shift = median(differences);
+
+        // Доверительный интервал сдвига по распределению статистики Манна–Уитни (нормальное приближение)
+        int n1 = current.length;
+        int n2 = baseline.length;
+        double z = inverseNormal(1 - alpha / 2);
+        int lowerRank = (int) Math.floor(n1 * n2 / 2.0 - z * Math.sqrt(n1 * n2 * (n1 + n2 + 1) / 12.0));
+        lowerRank = Math.max(0, Math.min(lowerRank, differences.length - 1));
+        comparison.shiftLow = differences[lowerRank];
+        comparison.shiftHigh = differences[differences.length - 1 - lowerRank];
+
+        comparison.pValue = mannWhitneyGreater(current, baseline);
+        double shiftPercent = comparison.baselineMedian == 0 ? 0 : comparison.shift * 100 / comparison.baselineMedian;
+        comparison.regression = comparison.pValue < alpha && shiftPercent > thresholdPercent;
+        return comparison;
+    }
+
+    /**
+     * Вычисляет односторонний p-value критерия Манна–Уитни для гипотезы,
+     * что значения первой выборки систематически больше значений второй.
+     * Используется нормальное приближение с поправкой на совпадающие значения и на непрерывность.
+     *
+     * @param first  первая выборка
+     * @param second вторая выборка
+     * @return p-value
+     *
+     * @author Сергей Лужин
+     */
+    static double mannWhitneyGreater(double[] first, double[] second) {
+        int n1 = first.length;
+        int n2 = second.length;
+        int n = n1 + n2;
+        double[][] pooled = new double[n][2];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[]{first[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[]{second[i], 1};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSumFirst = 0;
+        double tieCorrection = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            for (int m = i; m <= j; m++) {
+                if (pooled[m][1] == 0) {
+                    rankSumFirst += rank;
+                }
+            }
+            double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+
+        double u = rankSumFirst - n1 * (n1 + 1) / 2.0;
+        double mean = n1 * n2 / 2.0;
+        double variance = n1 * n2 / 12.0 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return 1 - normal(z);
+    }
+
+    /**
+     * Функция стандартного нормального распределения.
+     * Используется приближение Абрамовица–Стиган для функции ошибок (погрешность меньше 1.5e-7).
+     *
+     * @param x аргумент
+     * @return вероятность того, что стандартная нормальная величина не больше x
+     *
+     * @author Сергей Лужин
+     */
+    static double normal(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x) / Math.sqrt(2));
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-x * x / 2);
+        return x >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    /**
+     * Квантиль стандартного нормального распределения, найденный делением отрезка пополам.
+     *
+     * @param p вероятность от 0 до 1
+     * @return квантиль
+     *
+     * @author Сергей Лужин
+     */
+    static double inverseNormal(double p) {
+        double low = -10;
+        double high = 10;
+        for (int i = 0; i < 100; i++) {
+            double middle = (low + high) / 2;
+            if (normal(middle) < p) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Формирует читаемый отчёт о сравнении шагов.
+     *
+     * @param comparisons      результаты сравнения
+     * @param skipped          шаги, для которых недостаточно замеров
+     * @param thresholdPercent допустимое замедление в процентах
+     * @param alpha            уровень значимости
+     * @param minSamples       минимальное количество замеров
+     * @param runs             количество последних проверенных запусков
+     * @return отчёт
+     *
+     * @author Сергей Лужин
+     */
+    private static String report(List<StepComparison> comparisons, List<String> skipped,
+                                 double thresholdPercent, double alpha, int minSamples, int runs) {
+        StringBuilder report = new StringBuilder(String.format(
+                "[PERF] Сравнение последних %d запусков с базовыми замерами (порог %.1f%%, alpha %.3f):%n",
+                runs, thresholdPercent, alpha));
+        for (StepComparison c : comparisons) {
+            report.append(String.format(
+                    "  %s %s%n      медиана %.0f → %.0f мс, сдвиг %+.0f мс [%+.0f; %+.0f] (%+.1f%%), p = %.4f, замеров %d/%d%n",
+                    c.regression ? "РЕГРЕССИЯ" : "ок       ",
+                    c.step,
+                    c.baselineMedian, c.currentMedian,
+                    c.shift, c.shiftLow, c.shiftHigh,
+                    c.baselineMedian == 0 ? 0 : c.shift * 100 / c.baselineMedian,
+                    c.pValue,
+                    c.baselineSamples, c.currentSamples));
+        }
+        if (!skipped.isEmpty()) {
+            report.append("  Недостаточно замеров (нужно не меньше ").append(minSamples).append(" с каждой стороны):\n");
+            skipped.forEach(step -> report.append("    ").append(step).append('\n'));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Читает замеры шагов из файла JSON-строк, оставляя только последние запуски.
+     *
+     * @param path путь к файлу
+     * @param runs количество последних запусков (по наибольшим идентификаторам run)
+     * @return замеры по названиям шагов; пусто, если файла нет
+     *
+     * @author Сергей Лужин
+     */
+    static Map<String, List<Long>> read(Path path, int runs) {
+        TreeMap<Long, Map<String, List<Long>>> byRun = new TreeMap<>();
+        if (Files.exists(path)) {
+            ObjectMapper mapper = new ObjectMapper();
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    JsonNode node = mapper.readTree(line);
+                    byRun.computeIfAbsent(node.path("run").asLong(), k -> new TreeMap<>())
+                            .computeIfAbsent(node.get("step").asText(), k -> new ArrayList<>())
+                            .add(node.get("ms").asLong());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать замеры шагов " + path, e);
+            }
+        }
+
+        Map<String, List<Long>> timings = new TreeMap<>();
+        byRun.descendingMap().values().stream()
+                .limit(Math.max(1, runs))
+                .forEach(run -> run.forEach((step, ms) -> timings.computeIfAbsent(step, k -> new ArrayList<>()).addAll(ms)));
+        return timings;
+    }
+
+    private static double[] toArray(List<Long> values) {
+        return values.stream().mapToDouble(Long::doubleValue).toArray();
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
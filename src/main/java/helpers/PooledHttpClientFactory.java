@@ -0,0 +1,125 @@
+package helpers;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.internal.OkHttpClient;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Фабрика HTTP-клиентов для {@link org.openqa.selenium.remote.RemoteWebDriver}
+ * с общим пулом keep-alive соединений.
+ *
+ * Все сессии в JVM используют один пул соединений, поэтому команды WebDriver
+ * не открывают новое TCP-соединение на каждый запрос.
+ * Дополнительно считается количество команд и суммарное время их round trip.
+ *
+ * @author Сергей Лужин
+ */
+public class PooledHttpClientFactory implements HttpClient.Factory {
+
+    /**
+     * Единственный экземпляр фабрики.
+     */
+    private static final PooledHttpClientFactory INSTANCE = new PooledHttpClientFactory();
+
+    /**
+     * Количество выполненных команд WebDriver.
+     */
+    private static final AtomicLong COMMANDS = new AtomicLong();
+
+    /**
+     * Суммарное время выполнения команд в наносекундах.
+     */
+    private static final AtomicLong COMMANDS_NANOS = new AtomicLong();
+
+    /**
+     * Общий для всех сессий пул соединений.
+     */
+    private final ConnectionPool connectionPool = new ConnectionPool(
+            testProperties.httpPoolMaxIdle(),
+            testProperties.httpPoolKeepAliveSeconds(),
+            TimeUnit.SECONDS
+    );
+
+    private PooledHttpClientFactory() {
+    }
+
+    /**
+     * Возвращает единственный экземпляр фабрики.
+     *
+     * @return фабрика HTTP-клиентов
+     *
+     * @author Сергей Лужин
+     */
+    public static PooledHttpClientFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Возвращает построитель HTTP-клиента, использующего общий пул соединений.
+     *
+     * @return построитель HTTP-клиента
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public HttpClient.Builder builder() {
+        return new HttpClient.Builder() {
+            @Override
+            public HttpClient createClient(URL url) {
+                okhttp3.OkHttpClient client = new okhttp3.OkHttpClient.Builder()
+                        .connectionPool(connectionPool)
+                        .connectTimeout(connectionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .writeTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .retryOnConnectionFailure(true)
+                        .followRedirects(true)
+                        .addInterceptor(PooledHttpClientFactory::timeCommand)
+                        .build();
+                return new OkHttpClient(client, url);
+            }
+        }.readTimeout(Duration.ofSeconds(testProperties.httpReadTimeoutSeconds()));
+    }
+
+    /**
+     * Закрывает простаивающие соединения пула.
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void cleanupIdleClients() {
+        connectionPool.evictAll();
+    }
+
+    private static Response timeCommand(Interceptor.Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            COMMANDS.incrementAndGet();
+            COMMANDS_NANOS.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Возвращает отчёт о количестве команд WebDriver и среднем времени их round trip.
+     *
+     * @return отчёт о командах
+     *
+     * @author Сергей Лужин
+     */
+    public static String statisticsReport() {
+        long commands = COMMANDS.get();
+        double averageMs = commands == 0 ? 0 : COMMANDS_NANOS.get() / 1_000_000.0 / commands;
+        return "[HTTP] Команд WebDriver: " + commands + ", среднее время round trip: " + String.format("%.2f", averageMs) + " мс";
+    }
+}
@@ -0,0 +1,244 @@
+package helpers;
+
+import entity.Product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Индекс для нечёткого поиска товара в списке товаров страницы.
+ *
+ * Названия нормализуются (единый регистр, без знаков препинания и лишних пробелов)
+ * и разбиваются на триграммы слов. По триграммам строится обратный индекс,
+ * поэтому при поиске сравниваются только товары, имеющие с искомым общие триграммы.
+ * Сходство названий оценивается коэффициентом Сёренсена–Дайса по триграммам,
+ * цена считается совпавшей, если отличается не больше чем на заданный процент.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductIndex {
+
+    /**
+     * Товары, по которым построен индекс.
+     */
+    private final List<Product> products;
+
+    /**
+     * Допустимое отклонение цены в процентах.
+     */
+    private final double priceTolerancePercent;
+
+    /**
+     * Обратный индекс: триграмма -> номера товаров, в названии которых она встречается.
+     */
+    private final Map<String, List<Integer>> postings = new HashMap<>();
+
+    /**
+     * Количество уникальных триграмм названия каждого товара.
+     */
+    private final int[] trigramCounts;
+
+    /**
+     * Строит индекс по списку товаров.
+     *
+     * @param products              товары страницы
+     * @param priceTolerancePercent допустимое отклонение цены в процентах
+     *
+     * @author Сергей Лужин
+     */
+    public ProductIndex(List<Product> products, double priceTolerancePercent) {
+        this.products = new ArrayList<>(products);
+        this.priceTolerancePercent = priceTolerancePercent;
+        this.trigramCounts = new int[this.products.size()];
+
+        for (int id = 0; id < this.products.size(); id++) {
+            Set<String> trigrams = trigrams(this.products.get(id).getTitle());
+            trigramCounts[id] = trigrams.size();
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Ищет товар, наиболее похожий на искомый.
+     * Учитываются только товары, цена которых укладывается в допустимое отклонение.
+     *
+     * @param expected искомый товар
+     * @return лучшее совпадение или null, если подходящих кандидатов нет
+     *
+     * @author Сергей Лужин
+     */
+    public Match findBest(Product expected) {
+        Set<String> expectedTrigrams = trigrams(expected.getTitle());
+
+        Map<Integer, Integer> sharedCounts = new HashMap<>();
+        for (String trigram : expectedTrigrams) {
+            List<Integer> ids = postings.get(trigram);
+            if (ids != null) {
+                for (int id : ids) {
+                    sharedCounts.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        Match best = null;
+        for (Map.Entry<Integer, Integer> candidate : sharedCounts.entrySet()) {
+            int id = candidate.getKey();
+            Product product = products.get(id);
+            if (!priceMatches(expected.getPrice(), product.getPrice(), priceTolerancePercent)) {
+                continue;
+            }
+            double score = 2.0 * candidate.getValue() / (expectedTrigrams.size() + trigramCounts[id]);
+            if (best == null || score > best.getScore() || (score == best.getScore() && id < best.getPosition())) {
+                best = new Match(product, id, score);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Оценивает сходство двух товаров без построения индекса.
+     * Используется для проверки отдельных товаров по мере их сбора со страницы.
+     *
+     * @param expected              искомый товар
+     * @param candidate             проверяемый товар
+     * @param priceTolerancePercent допустимое отклонение цены в процентах
+     * @return сходство названий от 0 до 1 или 0, если цена не укладывается в отклонение
+     *
+     * @author Сергей Лужин
+     */
+    public static double score(Product expected, Product candidate, double priceTolerancePercent) {
+        if (!priceMatches(expected.getPrice(), candidate.getPrice(), priceTolerancePercent)) {
+            return 0;
+        }
+        Set<String> expectedTrigrams = trigrams(expected.getTitle());
+        Set<String> candidateTrigrams = trigrams(candidate.getTitle());
+        if (expectedTrigrams.isEmpty() && candidateTrigrams.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : candidateTrigrams) {
+            if (expectedTrigrams.contains(trigram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (expectedTrigrams.size() + candidateTrigrams.size());
+    }
+
+    private static boolean priceMatches(int expected, int actual, double tolerancePercent) {
+        return Math.abs(actual - expected) <= Math.abs(expected) * tolerancePercent / 100.0;
+    }
+
+    /**
+     * Приводит название к единому виду: единый регистр,
+     * буквы и цифры без знаков препинания, слова разделены одним пробелом.
+     *
+     * @param title исходное название
+     * @return нормализованное название
+     *
+     * @author Сергей Лужин
+     */
+    public static String normalize(String title) {
+        StringBuilder normalized = new StringBuilder(title.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(BrandMatcher.fold(c));
+            }
+            else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static Set<String> trigrams(String title) {
+        Set<String> trigrams = new HashSet<>();
+        for (String token : normalize(title).split(" ")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String padded = "#" + token + "#";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Результат поиска товара в индексе.
+     *
+     * @author Сергей Лужин
+     */
+    public static class Match {
+        /**
+         * Найденный товар.
+         */
+        private final Product product;
+
+        /**
+         * Позиция найденного товара в списке товаров страницы.
+         */
+        private final int position;
+
+        /**
+         * Сходство названий от 0 до 1.
+         */
+        private final double score;
+
+        Match(Product product, int position, double score) {
+            this.product = product;
+            this.position = position;
+            this.score = score;
+        }
+
+        /**
+         * Возвращает найденный товар.
+         *
+         * @return найденный товар
+         *
+         * @author Сергей Лужин
+         */
+        public Product getProduct() {
+            return product;
+        }
+
+        /**
+         * Возвращает позицию найденного товара в списке товаров страницы.
+         *
+         * @return позиция товара
+         *
+         * @author Сергей Лужин
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * Возвращает сходство названий.
+         *
+         * @return сходство от 0 до 1
+         *
+         * @author Сергей Лужин
+         */
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return product + "(позиция " + position + ", сходство " + String.format("%.2f", score) + ")";
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package helpers;
+
+import entity.Product;
+import entity.ProductSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Локальное хранилище снимков товаров между запусками тестов.
+ *
+ * Снимки дописываются в конец одного файла и никогда не перезаписываются.
+ * Каждая запись имеет вид:
+ * [магическое число][длина тела][ключ][время][количество товаров][товары...],
+ * строки хранятся как длина + байты UTF-8.
+ * Чтение выполняется через отображение файла в память, поэтому поиск
+ * снимков по ключу пропускает чужие записи без их разбора.
+ * Если запись повреждена или недописана (например, форк упал посреди {@link #append}),
+ * чтение продолжается со следующего магического числа, и последующие снимки остаются доступны.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductSnapshotStore {
+
+    /**
+     * Магическое число в начале каждой записи ("YMS1").
+     */
+    private static final int RECORD_MAGIC = 0x594D5331;
+
+    /**
+     * Размер заголовка записи: магическое число и длина тела.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    /**
+     * Путь к файлу хранилища.
+     */
+    private final Path path;
+
+    /**
+     * Создаёт хранилище поверх указанного файла.
+     * Файл и родительские каталоги создаются при первой записи.
+     *
+     * @param path путь к файлу хранилища
+     *
+     * @author Сергей Лужин
+     */
+    public ProductSnapshotStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Возвращает хранилище, путь к которому задан в test.properties.
+     *
+     * @return хранилище снимков по умолчанию
+     *
+     * @author Сергей Лужин
+     */
+    public static ProductSnapshotStore getDefault() {
+        return new ProductSnapshotStore(Paths.get(testProperties.snapshotStorePath()));
+    }
+
+    /**
+     * Формирует ключ выборки из категории и фильтров теста.
+     *
+     * @param category    категория каталога
+     * @param subcategory подкатегория каталога
+     * @param minPrice    минимальная цена фильтра
+     * @param maxPrice    максимальная цена фильтра
+     * @param brands      список брендов фильтра
+     * @return строковый ключ выборки
+     *
+     * @author Сергей Лужин
+     */
+    public static String key(String category, String subcategory, int minPrice, int maxPrice, List<String> brands) {
+        return category + "/" + subcategory + "|" + minPrice + "-" + maxPrice + "|" + String.join(",", brands);
+    }
+
+    /**
+     * Дописывает снимок товаров в конец хранилища.
+     *
+     * @param key       ключ выборки
+     * @param timestamp время снимка в миллисекундах с начала эпохи
+     * @param products  товары, собранные со страницы
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized void append(String key, long timestamp, List<Product> products) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> titles = new ArrayList<>(products.size());
+        int bodySize = Integer.BYTES + keyBytes.length + Long.BYTES + Integer.BYTES;
+        for (Product product : products) {
+            byte[] title = product.getTitle().getBytes(StandardCharsets.UTF_8);
+            titles.add(title);
+            bodySize += Integer.BYTES + title.length + Integer.BYTES;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        record.putInt(RECORD_MAGIC).putInt(bodySize);
+        record.putInt(keyBytes.length).put(keyBytes);
+        record.putLong(timestamp);
+        record.putInt(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            record.putInt(titles.get(i).length).put(titles.get(i));
+            record.putInt(products.get(i).getPrice());
+        }
+        record.flip();
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить снимок товаров в " + path, e);
+        }
+    }
+
+    /**
+     * Возвращает последний сохранённый снимок для ключа.
+     *
+     * @param key ключ выборки
+     * @return последний снимок или null, если снимков по ключу нет
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized ProductSnapshot findLatest(String key) {
+        List<ProductSnapshot> history = readSnapshots(key, true);
+        return history.isEmpty() ? null : history.get(0);
+    }
+
+    /**
+     * Возвращает все снимки для ключа в порядке их сохранения.
+     * Позволяет отслеживать изменение цен во времени.
+     *
+     * @param key ключ выборки
+     * @return список снимков, от самого старого к самому новому
+     *
+     * @author Сергей Лужин
+     */
+    public synchronized List<ProductSnapshot> history(String key) {
+        return readSnapshots(key, false);
+    }
+
+    /**
+     * Читает снимки ключа. Повреждённая или недописанная запись (например, после прерванного форка)
+     * пропускается: чтение продолжается с ближайшего следующего магического числа записи.
+     *
+     * @param key        ключ выборки
+     * @param latestOnly вернуть только последний снимок
+     * @return снимки ключа от старого к новому
+     *
+     * @author Сергей Лужин
+     */
+    private List<ProductSnapshot> readSnapshots(String key, boolean latestOnly) {
+        List<ProductSnapshot> snapshots = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return snapshots;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int recordStart = buffer.position();
+                String damage = null;
+                if (buffer.getInt() != RECORD_MAGIC) {
+                    damage = "Повреждённая запись";
+                }
+                int bodySize = damage == null ? buffer.getInt() : 0;
+                if (damage == null && (bodySize < Integer.BYTES || bodySize > buffer.remaining()
+                        || overlapsNextRecord(buffer, buffer.position(), bodySize))) {
+                    damage = "Недописанная запись";
+                }
+                int bodyStart = buffer.position();
+
+                if (damage == null) {
+                    try {
+                        if (keyEquals(buffer, bodySize, keyBytes)) {
+                            ProductSnapshot snapshot = readBody(buffer, bodyStart, bodySize, key);
+                            if (latestOnly) {
+                                snapshots.clear();
+                            }
+                            snapshots.add(snapshot);
+                        }
+                        buffer.position(bodyStart + bodySize);
+                        continue;
+                    } catch (RuntimeException e) {
+                        damage = "Повреждённая запись (" + e.getClass().getSimpleName() + ")";
+                    }
+                }
+
+                int next = findMagic(buffer, recordStart + 1);
+                System.out.println("[SNAPSHOT] " + damage + " в " + path + " на позиции " + recordStart
+                        + (next < 0 ? ", дальше записей нет" : ", продолжаем с позиции " + next));
+                if (next < 0) {
+                    break;
+                }
+                buffer.position(next);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать снимки товаров из " + path, e);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Ищет начало следующей записи по магическому числу.
+     *
+     * @param buffer содержимое файла
+     * @param from   позиция, с которой начинается поиск
+     * @return позиция магического числа или -1, если его нет
+     *
+     * @author Сергей Лужин
+     */
+    private static int findMagic(ByteBuffer buffer, int from) {
+        for (int position = from; position + HEADER_SIZE <= buffer.limit(); position++) {
+            if (buffer.getInt(position) == RECORD_MAGIC) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Проверяет, что запись оборвана посреди {@link #append}: её заявленное тело «накрывает»
+     * начало следующей записи, а сразу за телом нет ни конца файла, ни следующей записи.
+     *
+     * @param buffer    содержимое файла
+     * @param bodyStart начало тела записи
+     * @param bodySize  заявленная длина тела
+     * @return true, если запись недописана
+     *
+     * @author Сергей Лужин
+     */
+    private static boolean overlapsNextRecord(ByteBuffer buffer, int bodyStart, int bodySize) {
+        int end = bodyStart + bodySize;
+        boolean boundary = end == buffer.limit()
+                || end + Integer.BYTES <= buffer.limit() && buffer.getInt(end) == RECORD_MAGIC;
+        if (boundary) {
+            return false;
+        }
+        int next = findMagic(buffer, bodyStart);
+        return next >= 0 && next < end;
+    }
+
+    private static boolean keyEquals(ByteBuffer buffer, int bodySize, byte[] keyBytes) {
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length != keyBytes.length || Integer.BYTES + length > bodySize) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + Integer.BYTES + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ProductSnapshot readBody(ByteBuffer buffer, int bodyStart, int bodySize, String key) {
+        ByteBuffer body = buffer.duplicate();
+        // Чтение за пределы записи даёт BufferUnderflowException, а не чужие байты
+        body.limit(bodyStart + bodySize);
+        body.position(bodyStart);
+        body.position(bodyStart + Integer.BYTES + body.getInt());
+
+        long timestamp = body.getLong();
+        int count = body.getInt();
+        // Каждый товар занимает не меньше двух int: длина названия и цена
+        checkLength(count, body.remaining() / (Integer.BYTES * 2));
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int titleLength = body.getInt();
+            checkLength(titleLength, body.remaining());
+            byte[] title = new byte[titleLength];
+            body.get(title);
+            products.add(new Product(new String(title, StandardCharsets.UTF_8), body.getInt()));
+        }
+        return new ProductSnapshot(key, timestamp, products);
+    }
+
+    private static void checkLength(int length, int available) {
+        if (length < 0 || length > available) {
+            throw new IllegalStateException("Длина " + length + " выходит за пределы записи");
+        }
+    }
+}
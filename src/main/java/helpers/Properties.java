@@ -1,10 +1,19 @@
 package helpers;
 
+import org.aeonbits.owner.Config;
 import org.aeonbits.owner.ConfigFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Вспомогательный класс упрощающий доступ к конфигурационным свойствам проекта.
  *
+ * Конфигурации создаются лениво, при первом обращении к свойству: запуски,
+ * которым нужна только часть настроек (нагрузочный режим, проверка производительности),
+ * не тратят время старта JVM на чтение и разбор остальных файлов.
+ *
  * @author Сергей Лужин
  */
 public class Properties {
@@ -15,7 +24,7 @@ public class Properties {
      *
      * @author Сергей Лужин
      */
-    public static TestProperties testProperties = ConfigFactory.create(TestProperties.class);
+    public static TestProperties testProperties = lazy(TestProperties.class);
 
     /**
      * Конфигурация XPath-локаторов элементов страницы.
@@ -23,5 +32,35 @@ public class Properties {
      *
      * @author Сергей Лужин
      */
-    public static XpathProperties xpathProperties = ConfigFactory.create(XpathProperties.class);
+    public static XpathProperties xpathProperties = lazy(XpathProperties.class);
+
+    /**
+     * Возвращает заместитель конфигурации, который создаёт её через {@link ConfigFactory}
+     * при первом вызове любого метода и дальше передаёт вызовы созданной конфигурации.
+     *
+     * @param type интерфейс конфигурации
+     * @param <T>  тип конфигурации
+     * @return ленивая конфигурация
+     *
+     * @author Сергей Лужин
+     */
+    private static <T extends Config> T lazy(Class<T> type) {
+        AtomicReference<T> config = new AtomicReference<>();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            T target = config.get();
+            if (target == null) {
+                synchronized (config) {
+                    if (config.get() == null) {
+                        config.set(ConfigFactory.create(type));
+                    }
+                    target = config.get();
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
 }
@@ -17,6 +17,7 @@ public class Screenshoter {
 
     /**
      * Делает скриншот текущего состояния браузера и прикрепляет его к отчёту Allure.
+     * Если драйвер не умеет делать скриншоты, ничего не делает.
      *
      * @param name   название скриншота в отчёте Allure
      *
@@ -25,8 +26,16 @@ public class Screenshoter {
     public static void attachScreenshot(String name) {
         WebDriver driver = Driver.getWebDriver();
         try {
-            if (driver instanceof TakesScreenshot) {
+            if (Driver.supportsScreenshots() && driver instanceof TakesScreenshot) {
+                CaptureJfrEvent event = new CaptureJfrEvent();
+                event.begin();
+                long start = System.nanoTime();
                 byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                CaptureStatistics.record("PNG (image/png)", start, screenshot.length);
+                event.kind = "PNG (image/png)";
+                event.name = name;
+                event.size = screenshot.length;
+                event.commit();
                 Allure.addAttachment(name, new ByteArrayInputStream(screenshot));
             }
         } catch (Exception ignored) {}
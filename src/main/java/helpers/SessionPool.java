@@ -0,0 +1,172 @@
+package helpers;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул заранее запущенных сессий браузера без отрисовки.
+ *
+ * Все сессии создаются параллельно при создании пула, чтобы запуск браузеров
+ * не попадал в замеры и не ограничивал генератор нагрузки.
+ * Сессия, на которой сценарий упал, закрывается и заменяется новой.
+ * Если новую сессию запустить не удалось, место в пуле не теряется:
+ * сессию для него пытается запустить следующий {@link #acquire()}.
+ *
+ * @author Сергей Лужин
+ */
+public class SessionPool implements AutoCloseable {
+
+    /**
+     * Свободные сессии.
+     */
+    private final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+
+    /**
+     * Все живые сессии пула, включая выданные.
+     */
+    private final List<WebDriver> sessions = new ArrayList<>();
+
+    /**
+     * Количество мест пула, для которых не удалось запустить замену сломанной сессии.
+     */
+    private final AtomicInteger missing = new AtomicInteger();
+
+    /**
+     * Создаёт пул и параллельно запускает все его сессии, каждую в своём потоке.
+     * Если хотя бы одна сессия не запустилась, уже запущенные закрываются, а ошибка пробрасывается.
+     *
+     * @param size количество сессий
+     *
+     * @author Сергей Лужин
+     */
+    public SessionPool(int size) {
+        // Общий ForkJoinPool на небольших машинах запускал бы браузеры по очереди
+        ExecutorService starter = Executors.newFixedThreadPool(Math.max(1, size), runnable -> {
+            Thread thread = new Thread(runnable, "session-pool-start");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<WebDriver>> starting = new ArrayList<>();
+        try {
+            for (int i = 0; i < size; i++) {
+                starting.add(CompletableFuture.supplyAsync(Driver::createHeadlessSession, starter));
+            }
+            RuntimeException failure = null;
+            for (CompletableFuture<WebDriver> session : starting) {
+                try {
+                    register(session.join());
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) {
+                System.out.println("[LOAD] Не удалось запустить сессию пула, закрываем уже запущенные");
+                close();
+                throw failure;
+            }
+        } finally {
+            starter.shutdown();
+        }
+        idle.addAll(sessions);
+    }
+
+    /**
+     * Выдаёт свободную сессию, ожидая её освобождения, если все заняты.
+     * Пока ждёт, занимает место пула без сессии, если такое есть, и запускает для него новую сессию.
+     *
+     * @return сессия браузера
+     * @throws InterruptedException если ожидание прервано
+     *
+     * @author Сергей Лужин
+     */
+    public WebDriver acquire() throws InterruptedException {
+        while (true) {
+            WebDriver session = idle.poll(1, TimeUnit.SECONDS);
+            if (session != null) {
+                return session;
+            }
+            if (missing.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                try {
+                    return register(Driver.createHeadlessSession());
+                } catch (RuntimeException e) {
+                    // Место остаётся пустым, попробуем снова после следующего ожидания
+                    System.out.println("[LOAD] Не удалось запустить сессию: " + e.getClass().getSimpleName());
+                    missing.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает сессию в пул. Сломанная сессия закрывается и заменяется новой.
+     *
+     * @param session сессия браузера
+     * @param broken  признак того, что на сессии упал сценарий
+     *
+     * @author Сергей Лужин
+     */
+    public void release(WebDriver session, boolean broken) {
+        if (!broken) {
+            try {
+                session.manage().deleteAllCookies();
+                idle.add(session);
+                return;
+            } catch (WebDriverException e) {
+                System.out.println("[LOAD] Сессия не отвечает, заменяем: " + e.getClass().getSimpleName());
+            }
+        }
+
+        quietlyQuit(session);
+        synchronized (sessions) {
+            sessions.remove(session);
+        }
+        try {
+            idle.add(register(Driver.createHeadlessSession()));
+        } catch (RuntimeException e) {
+            // Метод вызывается из finally, поэтому не бросает: место заполнит следующий acquire()
+            System.out.println("[LOAD] Не удалось запустить замену сессии: " + e.getClass().getSimpleName());
+            missing.incrementAndGet();
+        }
+    }
+
+    private WebDriver register(WebDriver session) {
+        synchronized (sessions) {
+            sessions.add(session);
+        }
+        return session;
+    }
+
+    /**
+     * Закрывает все сессии пула.
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void close() {
+        synchronized (sessions) {
+            sessions.forEach(SessionPool::quietlyQuit);
+            sessions.clear();
+        }
+        idle.clear();
+        missing.set(0);
+    }
+
+    private static void quietlyQuit(WebDriver session) {
+        try {
+            session.quit();
+        } catch (WebDriverException ignored) {}
+    }
+}
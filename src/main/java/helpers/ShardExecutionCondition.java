@@ -0,0 +1,67 @@
+package helpers;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Method;
+import java.util.stream.Stream;
+
+/**
+ * Условие выполнения JUnit, отключающее параметризованный тест,
+ * если в текущий шард не попало ни одного набора данных.
+ * Без него JUnit считает пустой источник аргументов ошибкой конфигурации.
+ *
+ * @author Сергей Лужин
+ */
+public class ShardExecutionCondition implements ExecutionCondition {
+
+    /**
+     * Проверяет, что источник аргументов теста вернул хотя бы один набор для текущего шарда.
+     * Проверка выполняется один раз для всего параметризованного теста, а не для каждого вызова.
+     *
+     * @param context контекст расширения
+     * @return результат проверки
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        boolean isTemplateContainer = context.getTestMethod().isPresent()
+                && !context.getParent().flatMap(ExtensionContext::getTestMethod).isPresent();
+        MethodSource source = context.getTestMethod().map(m -> m.getAnnotation(MethodSource.class)).orElse(null);
+        if (!isTemplateContainer || source == null) {
+            return ConditionEvaluationResult.enabled("Тест не параметризован через MethodSource");
+        }
+
+        // Без имени фабрики JUnit ищет метод с тем же именем, что и тест
+        String[] factories = source.value().length == 0 ? new String[]{""} : source.value();
+        for (String factory : factories) {
+            String name = factory.trim().isEmpty() ? context.getRequiredTestMethod().getName() : factory.trim();
+            if (hasArguments(name, context.getRequiredTestClass())) {
+                return ConditionEvaluationResult.enabled("В шарде есть наборы данных");
+            }
+        }
+        return ConditionEvaluationResult.disabled("В шард " + Integer.getInteger("shard.index", 0) + " не попало ни одного набора данных");
+    }
+
+    private static boolean hasArguments(String factory, Class<?> testClass) {
+        try {
+            Class<?> factoryClass = testClass;
+            String methodName = factory;
+            if (factory.contains("#")) {
+                factoryClass = Class.forName(factory.substring(0, factory.indexOf('#')));
+                methodName = factory.substring(factory.indexOf('#') + 1);
+            }
+            Method method = factoryClass.getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            try (Stream<?> arguments = (Stream<?>) method.invoke(null)) {
+                return arguments.findAny().isPresent();
+            }
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            // Не удалось проверить источник — пусть JUnit сам сообщит о проблеме
+            return true;
+        }
+    }
+}
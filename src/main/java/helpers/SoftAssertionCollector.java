@@ -0,0 +1,122 @@
+package helpers;
+
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Сборщик "мягких" проверок с отложенным формированием сообщений.
+ *
+ * Не открывает отдельный шаг Allure и не выполняет
+ * отдельный ассерт на каждую проверку: результаты копятся, а в {@link #verify()}
+ * прикладываются к отчёту одним вложением и завершаются одним ассертом.
+ * Нарушения хранятся как номера строк, а текст сообщения строится только при провале
+ * и ограничивается первыми {@code soft.assert.max.items} элементами с припиской "и ещё N".
+ *
+ * @author Сергей Лужин
+ */
+public class SoftAssertionCollector {
+
+    /**
+     * Накопленные проверки в порядке добавления.
+     */
+    private final List<Check> checks = new ArrayList<>();
+
+    /**
+     * Добавляет проверку логического условия.
+     *
+     * @param displayName описание проверки для отчёта
+     * @param condition   результат проверки
+     * @param failMessage сообщение, формируемое только при провале
+     * @return этот же сборщик
+     *
+     * @author Сергей Лужин
+     */
+    public SoftAssertionCollector check(String displayName, boolean condition, Supplier<String> failMessage) {
+        checks.add(new Check(displayName, condition, failMessage));
+        return this;
+    }
+
+    /**
+     * Добавляет проверку отсутствия нарушений.
+     * Нарушения передаются номерами строк и превращаются в текст только при провале.
+     *
+     * @param displayName описание проверки для отчёта
+     * @param violations  номера строк с нарушениями
+     * @param renderer    преобразование номера строки в описание нарушения
+     * @param header      начало сообщения о провале
+     * @return этот же сборщик
+     *
+     * @author Сергей Лужин
+     */
+    public SoftAssertionCollector checkNoViolations(String displayName, int[] violations, IntFunction<?> renderer, Supplier<String> header) {
+        return check(displayName, violations.length == 0, () -> header.get() + render(violations, renderer));
+    }
+
+    /**
+     * Прикладывает результаты всех проверок к текущему шагу Allure одним вложением
+     * и падает одним ассертом, если хотя бы одна проверка не прошла.
+     *
+     * @author Сергей Лужин
+     */
+    public void verify() {
+        StringBuilder summary = new StringBuilder();
+        List<String> failures = new ArrayList<>();
+        for (Check check : checks) {
+            if (check.passed) {
+                summary.append("[OK] ").append(check.displayName).append('\n');
+            }
+            else {
+                String message = check.failMessage.get();
+                failures.add(message);
+                summary.append("[FAIL] ").append(check.displayName).append('\n')
+                        .append("       ").append(message).append('\n');
+            }
+        }
+
+        Allure.addAttachment("Результаты проверок: пройдено " + (checks.size() - failures.size()) + " из " + checks.size(),
+                summary.toString());
+
+        if (!failures.isEmpty()) {
+            Assertions.fail(String.join("\n", failures));
+        }
+    }
+
+    private static String render(int[] violations, IntFunction<?> renderer) {
+        int limit = Math.min(violations.length, testProperties.softAssertMaxItems());
+        StringBuilder rendered = new StringBuilder("[");
+        for (int i = 0; i < limit; i++) {
+            if (i > 0) {
+                rendered.append(", ");
+            }
+            rendered.append(renderer.apply(violations[i]));
+        }
+        if (violations.length > limit) {
+            rendered.append(" и ещё ").append(violations.length - limit);
+        }
+        return rendered.append(']').toString();
+    }
+
+    /**
+     * Одна накопленная проверка.
+     *
+     * @author Сергей Лужин
+     */
+    private static class Check {
+        private final String displayName;
+        private final boolean passed;
+        private final Supplier<String> failMessage;
+
+        Check(String displayName, boolean passed, Supplier<String> failMessage) {
+            this.displayName = displayName;
+            this.passed = passed;
+            this.failMessage = failMessage;
+        }
+    }
+}
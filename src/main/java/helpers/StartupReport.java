@@ -0,0 +1,125 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Замер времени старта JVM тестового прогона.
+ *
+ * Один раз на JVM фиксирует время от запуска JVM до первого теста и количество загруженных классов,
+ * дописывает замер в файл {@code startup.report.path} и выводит медиану старта по каждому режиму
+ * общих классов: без архива или с архивом AppCDS (профиль Maven {@code appcds}).
+ * Замер пишется, только если задано {@code -Dstartup.report=true}: его включает профиль {@code appcds},
+ * а для замера режима без архива свойство задаётся вручную. Обычные прогоны файл не наращивают.
+ *
+ * @author Сергей Лужин
+ */
+public class StartupReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Признак того, что старт текущей JVM уже записан.
+     */
+    private static final AtomicBoolean RECORDED = new AtomicBoolean();
+
+    /**
+     * Записывает время старта текущей JVM, если замер включён и ещё не записан, и выводит сравнение режимов.
+     *
+     * @author Сергей Лужин
+     */
+    public static void recordOnce() {
+        if (!Boolean.getBoolean("startup.report") || !RECORDED.compareAndSet(false, true)) {
+            return;
+        }
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        long startupMs = runtime.getUptime();
+
+        Map<String, Object> startup = new LinkedHashMap<>();
+        startup.put("run", Instant.now().toString());
+        startup.put("mode", sharingMode(runtime.getInputArguments()));
+        startup.put("ms", startupMs);
+        startup.put("classes", ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount());
+        System.out.println("[STARTUP] JVM готова к первому тесту за " + startupMs + " мс, режим " + startup.get("mode")
+                + ", загружено классов " + startup.get("classes"));
+
+        Path path = Paths.get(testProperties.startupReportPath());
+        try {
+            String line = MAPPER.writeValueAsString(startup) + System.lineSeparator();
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println(report(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать время старта в " + path, e);
+        }
+    }
+
+    /**
+     * Определяет режим общих классов по аргументам JVM.
+     *
+     * @param arguments аргументы запуска JVM
+     * @return "appcds-dump" при записи архива, "appcds" при его использовании, иначе "default"
+     *
+     * @author Сергей Лужин
+     */
+    private static String sharingMode(List<String> arguments) {
+        for (String argument : arguments) {
+            if (argument.startsWith("-XX:ArchiveClassesAtExit")) {
+                return "appcds-dump";
+            }
+            if (argument.startsWith("-XX:SharedArchiveFile")) {
+                return "appcds";
+            }
+        }
+        return "default";
+    }
+
+    /**
+     * Возвращает отчёт с медианой времени старта по режимам общих классов.
+     *
+     * @param path файл замеров
+     * @return отчёт о времени старта
+     * @throws IOException если файл не удалось прочитать
+     *
+     * @author Сергей Лужин
+     */
+    private static String report(Path path) throws IOException {
+        Map<String, List<Long>> byMode = new TreeMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonNode node = MAPPER.readTree(line);
+            byMode.computeIfAbsent(node.path("mode").asText(), k -> new ArrayList<>()).add(node.path("ms").asLong());
+        }
+
+        StringBuilder report = new StringBuilder("[STARTUP] Время старта JVM по режимам:\n");
+        byMode.forEach((mode, values) -> {
+            values.sort(null);
+            report.append("  ").append(mode).append(": медиана ").append(values.get(values.size() / 2))
+                    .append(" мс по ").append(values.size()).append(" запускам\n");
+        });
+        return report.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package helpers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Событие Java Flight Recorder для шага Allure: длится от начала до завершения шага.
+ * Записывается {@link JfrStepListener}.
+ *
+ * @author Сергей Лужин
+ */
+@Name("yandexmarket.Step")
+@Label("Шаг теста")
+@Category({"Yandex Market", "Тесты"})
+@Description("Шаг Allure из YandexMarketSteps от начала до завершения")
+public class StepJfrEvent extends Event {
+
+    /**
+     * Название шага.
+     */
+    @Label("Шаг")
+    public String name;
+
+    /**
+     * Итог шага: статус Allure.
+     */
+    @Label("Итог")
+    public String outcome;
+}
@@ -0,0 +1,146 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Step;
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Слушатель шагов Allure, записывающий длительность каждого успешно завершённого шага.
+ *
+ * Замеры дописываются в файл {@code perf.timings.path} по одной JSON-строке на шаг:
+ * {@code {"run": ..., "step": ..., "ms": ...}}, где run — время запуска JVM.
+ * По накопленным замерам нескольких запусков {@link PerformanceGate}
+ * проверяет, не стали ли шаги медленнее базовых замеров.
+ * Подключается через {@code META-INF/services/io.qameta.allure.listener.StepLifecycleListener}.
+ *
+ * @author Сергей Лужин
+ */
+public class StepTimingListener implements StepLifecycleListener {
+
+    /**
+     * Идентификатор запуска, общий для всех шагов одной JVM.
+     */
+    private static final long RUN_ID = System.currentTimeMillis();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    /**
+     * Ключи шагов по классу и имени метода шага; пустая строка — метод без аннотации {@link Step}.
+     */
+    private static final Map<String, String> STEP_KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * Ключи начатых шагов текущего потока; вложенные шаги завершаются раньше внешних.
+     */
+    private final ThreadLocal<Deque<String>> keys = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Запоминает ключ начинающегося шага, пока в стеке вызовов есть метод шага.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void beforeStepStart(StepResult result) {
+        keys.get().push(stepKey());
+    }
+
+    /**
+     * Записывает длительность шага, если он завершился успешно.
+     * Упавшие шаги не учитываются: их длительность определяется таймаутами, а не скоростью страницы.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void afterStepStop(StepResult result) {
+        String key = keys.get().poll();
+        if (result.getStatus() != Status.PASSED || result.getStart() == null || result.getStop() == null) {
+            return;
+        }
+
+        Map<String, Object> timing = new LinkedHashMap<>();
+        timing.put("run", RUN_ID);
+        // Название шага без аннотации известно только к его завершению
+        timing.put("step", key == null || key.isEmpty() ? result.getName() : key);
+        timing.put("ms", result.getStop() - result.getStart());
+
+        Path path = Paths.get(testProperties.perfTimingsPath());
+        try {
+            String line = MAPPER.writeValueAsString(timing) + System.lineSeparator();
+            synchronized (StepTimingListener.class) {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                Files.write(path, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать длительность шага в " + path, e);
+        }
+    }
+
+    /**
+     * Возвращает ключ шага: шаблон названия из аннотации {@link Step} метода шага,
+     * чтобы замеры одного шага с разными данными (например, найденным товаром) сравнивались между собой.
+     * Для шагов с пустым шаблоном возвращается имя метода,
+     * для шагов без аннотации (например, {@code Allure.step}) — пустая строка.
+     *
+     * Метод шага ищется в стеке вызовов: это первый кадр после кода Allure и AspectJ.
+     *
+     * @return ключ шага или пустая строка
+     *
+     * @author Сергей Лужин
+     */
+    static String stepKey() {
+        Optional<StackWalker.StackFrame> caller = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !isInfrastructure(frame.getClassName()))
+                .findFirst());
+        if (!caller.isPresent()) {
+            return "";
+        }
+
+        Class<?> type = caller.get().getDeclaringClass();
+        // AspectJ выносит тело метода с around-советом в метод вида name_aroundBody0
+        String methodName = caller.get().getMethodName().replaceFirst("_aroundBody\\d+$", "");
+        return STEP_KEYS.computeIfAbsent(type.getName() + "#" + methodName, ignored -> {
+            for (Method method : type.getDeclaredMethods()) {
+                Step step = method.getAnnotation(Step.class);
+                if (step != null && method.getName().equals(methodName)) {
+                    return step.value().isEmpty() ? type.getSimpleName() + "." + methodName : step.value();
+                }
+            }
+            return "";
+        });
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("io.qameta.allure.")
+                || className.startsWith("org.aspectj.")
+                || className.startsWith("java.")
+                || className.startsWith("jdk.")
+                || className.startsWith(StepTimingListener.class.getName());
+    }
+}
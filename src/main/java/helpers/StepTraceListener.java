@@ -0,0 +1,76 @@
+package helpers;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.ByteArrayInputStream;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Слушатель шагов Allure, прикладывающий к каждому шагу трассировку Chrome.
+ *
+ * Включается настройкой {@code trace.steps.enabled}: тогда ChromeDriver ведёт журнал performance
+ * (см. {@link Driver#supportsTracing()}). В начале шага журнал очищается, а перед завершением шага
+ * накопленные события прикладываются к шагу сжатым файлом трассировки и сводкой {@link ChromeTrace}.
+ * Подключается через {@code META-INF/services/io.qameta.allure.listener.StepLifecycleListener}.
+ *
+ * @author Сергей Лужин
+ */
+public class StepTraceListener implements StepLifecycleListener {
+
+    /**
+     * Отбрасывает события, накопленные до начала шага.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void beforeStepStart(StepResult result) {
+        if (!Driver.supportsTracing()) {
+            return;
+        }
+        try {
+            driver().manage().logs().get(LogType.PERFORMANCE);
+        } catch (WebDriverException e) {
+            System.out.println("[TRACE] Не удалось очистить журнал performance: " + e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Прикладывает к шагу трассировку и её сводку, пока шаг ещё не завершён.
+     *
+     * @param result результат шага
+     *
+     * @author Сергей Лужин
+     */
+    @Override
+    public void beforeStepStop(StepResult result) {
+        if (!Driver.supportsTracing()) {
+            return;
+        }
+        try {
+            ChromeTrace trace = ChromeTrace.fromLog(driver().manage().logs().get(LogType.PERFORMANCE));
+            if (trace.isEmpty()) {
+                return;
+            }
+            long stepDurationMs = result.getStart() == null ? 0 : System.currentTimeMillis() - result.getStart();
+            Allure.addAttachment("Трассировка Chrome", "application/gzip",
+                    new ByteArrayInputStream(trace.toGzippedJson()), ".trace.json.gz");
+            Allure.addAttachment("Сводка трассировки", trace.summary(stepDurationMs, testProperties.traceLongTaskMs()));
+        } catch (WebDriverException e) {
+            System.out.println("[TRACE] Не удалось получить трассировку шага: " + e.getClass().getSimpleName());
+        }
+    }
+
+    private static WebDriver driver() {
+        WebDriver driver = Driver.getWebDriver();
+        return driver instanceof EventFiringWebDriver ? ((EventFiringWebDriver) driver).getWrappedDriver() : driver;
+    }
+}
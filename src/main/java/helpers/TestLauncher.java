@@ -0,0 +1,66 @@
+package helpers;
+
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * Запуск тестов через JUnit Platform без surefire для профиля Maven {@code appcds}.
+ *
+ * Архив AppCDS принимает в пути классов только JAR-файлы, а surefire всегда добавляет
+ * в него каталоги target/classes и target/test-classes. Профиль собирает классы проекта в JAR
+ * и запускает тесты этим классом в отдельной JVM с архивом.
+ *
+ * В тренировочном прогоне ({@code -Dappcds.training=true}, профиль {@code appcds-training})
+ * тесты нужны только для загрузки классов в записываемый архив: их итог выводится для сведения,
+ * но JVM завершается успешно. Обычный прогон без записанного архива {@code appcds.archive} не запускается,
+ * чтобы не выдать прогон без архива и без агента AspectJ за отчётный.
+ *
+ * @author Сергей Лужин
+ */
+public class TestLauncher {
+
+    /**
+     * Запускает тесты пакета и завершает JVM с кодом 1, если есть упавшие тесты
+     * (кроме тренировочного прогона) или архива AppCDS нет.
+     *
+     * @param args пакет с тестами; по умолчанию ru.yandexmarket
+     *
+     * @author Сергей Лужин
+     */
+    public static void main(String[] args) {
+        boolean training = Boolean.getBoolean("appcds.training");
+        String archive = System.getProperty("appcds.archive");
+        if (!training && archive != null && !Files.exists(Paths.get(archive))) {
+            System.out.println("[APPCDS] Нет архива " + archive + ", сначала запишите его: mvn -Pappcds,appcds-training test");
+            System.exit(1);
+        }
+
+        String testPackage = args.length > 0 ? args[0] : "ru.yandexmarket";
+        LauncherDiscoveryRequest request = request().selectors(selectPackage(testPackage)).build();
+
+        Launcher launcher = LauncherFactory.create();
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        launcher.execute(request, summary);
+
+        TestExecutionSummary result = summary.getSummary();
+        PrintWriter out = new PrintWriter(System.out);
+        result.printTo(out);
+        result.printFailuresTo(out);
+        out.flush();
+        if (training) {
+            System.out.println("[APPCDS] Тренировочный прогон записал архив, его результаты не учитываются");
+            System.exit(0);
+        }
+        System.exit(result.getTotalFailureCount() > 0 ? 1 : 0);
+    }
+}
@@ -73,4 +73,539 @@ public interface TestProperties extends Config {
      */
     @Config.Key("driver.chrome")
     String driverChrome();
+
+    /**
+     * Возвращает путь к файлу хранилища снимков товаров между запусками.
+     *
+     * @return строка с путем к файлу снимков
+     * @author Сергей Лужин
+     */
+    @Config.Key("snapshot.store.path")
+    String snapshotStorePath();
+
+    /**
+     * Возвращает допустимое отклонение цены товара при поиске его в выдаче (в процентах).
+     *
+     * @return допустимое отклонение цены
+     * @author Сергей Лужин
+     */
+    @Config.Key("search.price.tolerance.percent")
+    double searchPriceTolerancePercent();
+
+    /**
+     * Возвращает минимальное сходство названий (от 0 до 1),
+     * при котором товар считается найденным в выдаче.
+     *
+     * @return минимальное сходство названий
+     * @author Сергей Лужин
+     */
+    @Config.Key("search.match.min.score")
+    double searchMatchMinScore();
+
+    /**
+     * Возвращает максимальное количество карточек,
+     * просматриваемых при поиске товара в выдаче.
+     *
+     * @return предел глубины поиска товара
+     * @author Сергей Лужин
+     */
+    @Config.Key("search.harvest.max.depth")
+    int searchHarvestMaxDepth();
+
+    /**
+     * Возвращает начальный интервал опроса условий ожидания (в миллисекундах).
+     *
+     * @return начальный интервал опроса
+     * @author Сергей Лужин
+     */
+    @Config.Key("wait.poll.interval.ms")
+    int waitPollIntervalMs();
+
+    /**
+     * Возвращает множитель, на который увеличивается интервал опроса после каждой неудачной попытки.
+     *
+     * @return множитель интервала опроса
+     * @author Сергей Лужин
+     */
+    @Config.Key("wait.poll.backoff")
+    double waitPollBackoff();
+
+    /**
+     * Возвращает максимальный интервал опроса условий ожидания (в миллисекундах).
+     *
+     * @return максимальный интервал опроса
+     * @author Сергей Лужин
+     */
+    @Config.Key("wait.poll.max.interval.ms")
+    int waitPollMaxIntervalMs();
+
+    /**
+     * Возвращает время ожидания необязательных полей карточки товара,
+     * например цены, которой у карточки может не быть (в миллисекундах).
+     *
+     * @return время ожидания необязательного поля
+     * @author Сергей Лужин
+     */
+    @Config.Key("optional.field.timeout.ms")
+    int optionalFieldTimeoutMs();
+
+    /**
+     * Возвращает признак сохранения контрольных точек сценария
+     * и повторного использования браузера после падения теста.
+     *
+     * @return true, если контрольные точки включены
+     * @author Сергей Лужин
+     */
+    @Config.Key("checkpoint.enabled")
+    boolean checkpointEnabled();
+
+    /**
+     * Возвращает путь к каталогу с файлами контрольных точек.
+     *
+     * @return строка с путем к каталогу контрольных точек
+     * @author Сергей Лужин
+     */
+    @Config.Key("checkpoint.dir")
+    String checkpointDir();
+
+    /**
+     * Возвращает максимальный возраст контрольной точки (в минутах),
+     * после которого сценарий начинается заново.
+     *
+     * @return максимальный возраст контрольной точки
+     * @author Сергей Лужин
+     */
+    @Config.Key("checkpoint.max.age.minutes")
+    int checkpointMaxAgeMinutes();
+
+    /**
+     * Возвращает путь к файлу истории длительностей наборов тестовых данных.
+     *
+     * @return строка с путем к файлу истории длительностей
+     * @author Сергей Лужин
+     */
+    @Config.Key("test.durations.path")
+    String testDurationsPath();
+
+    /**
+     * Возвращает тип драйвера браузера: chrome (локальный ChromeDriver),
+     * remote (RemoteWebDriver с пулом соединений)
+     * или htmlunit (HtmlUnit внутри JVM, без отрисовки и скриншотов).
+     *
+     * @return тип драйвера браузера
+     * @author Сергей Лужин
+     */
+    @Config.Key("driver.backend")
+    String driverBackend();
+
+    /**
+     * Возвращает адрес Selenium сервера или ChromeDriver для режима remote.
+     * Если адрес пустой, запускается локальный ChromeDriver, общий для всех сессий.
+     *
+     * @return строка с адресом удалённого WebDriver
+     * @author Сергей Лужин
+     */
+    @Config.Key("driver.remote.url")
+    String driverRemoteUrl();
+
+    /**
+     * Возвращает максимальное количество простаивающих соединений в пуле HTTP-клиента.
+     *
+     * @return размер пула простаивающих соединений
+     * @author Сергей Лужин
+     */
+    @Config.Key("http.pool.max.idle")
+    int httpPoolMaxIdle();
+
+    /**
+     * Возвращает время жизни простаивающего соединения в пуле (в секундах).
+     *
+     * @return время жизни соединения
+     * @author Сергей Лужин
+     */
+    @Config.Key("http.pool.keep.alive.seconds")
+    int httpPoolKeepAliveSeconds();
+
+    /**
+     * Возвращает таймаут чтения ответа на команду WebDriver (в секундах).
+     *
+     * @return таймаут чтения ответа
+     * @author Сергей Лужин
+     */
+    @Config.Key("http.read.timeout.seconds")
+    int httpReadTimeoutSeconds();
+
+    /**
+     * Возвращает максимальное количество нарушений,
+     * перечисляемых в сообщении о провале мягкой проверки.
+     *
+     * @return максимальное количество перечисляемых нарушений
+     * @author Сергей Лужин
+     */
+    @Config.Key("soft.assert.max.items")
+    int softAssertMaxItems();
+
+    /**
+     * Возвращает путь к каталогу с результатами Allure.
+     *
+     * @return строка с путем к allure-results
+     * @author Сергей Лужин
+     */
+    @Config.Key("allure.results.dir")
+    String allureResultsDir();
+
+    /**
+     * Возвращает путь к каталогу, в который упаковываются вложения удалённых результатов Allure.
+     *
+     * @return строка с путем к каталогу архивов
+     * @author Сергей Лужин
+     */
+    @Config.Key("allure.archive.dir")
+    String allureArchiveDir();
+
+    /**
+     * Возвращает количество последних результатов каждого теста, оставляемых в allure-results.
+     *
+     * @return количество хранимых результатов на тест
+     * @author Сергей Лужин
+     */
+    @Config.Key("allure.retention.results.per.test")
+    int allureRetentionResultsPerTest();
+
+    /**
+     * Возвращает максимальный возраст результатов в allure-results (в днях).
+     *
+     * @return срок хранения результатов
+     * @author Сергей Лужин
+     */
+    @Config.Key("allure.retention.days")
+    int allureRetentionDays();
+
+    /**
+     * Возвращает режим фиксации состояния страницы после клика по элементу.
+     *
+     * @return режим фиксации: NONE, SCREENSHOT, DOM или BOTH
+     * @author Сергей Лужин
+     */
+    @Config.Key("capture.click")
+    CaptureMode captureClick();
+
+    /**
+     * Возвращает режим фиксации состояния страницы после ввода текста.
+     *
+     * @return режим фиксации: NONE, SCREENSHOT, DOM или BOTH
+     * @author Сергей Лужин
+     */
+    @Config.Key("capture.change.value")
+    CaptureMode captureChangeValue();
+
+    /**
+     * Возвращает режим фиксации состояния страницы после перехода по URL.
+     *
+     * @return режим фиксации: NONE, SCREENSHOT, DOM или BOTH
+     * @author Сергей Лужин
+     */
+    @Config.Key("capture.navigate")
+    CaptureMode captureNavigate();
+
+    /**
+     * Возвращает режим фиксации состояния страницы при исключении WebDriver.
+     *
+     * @return режим фиксации: NONE, SCREENSHOT, DOM или BOTH
+     * @author Сергей Лужин
+     */
+    @Config.Key("capture.exception")
+    CaptureMode captureException();
+
+    /**
+     * Возвращает CSS-селектор элемента, разметка которого сохраняется в снимке DOM.
+     * Если селектор пустой или элемент не найден, сохраняется весь документ.
+     *
+     * @return CSS-селектор элемента для снимка DOM
+     * @author Сергей Лужин
+     */
+    @Config.Key("capture.dom.selector")
+    String captureDomSelector();
+
+    /**
+     * Возвращает путь к внешнему набору тестовых данных (CSV или JSON).
+     * Пустое значение — использовать встроенные наборы.
+     *
+     * @return строка с путем к набору данных
+     * @author Сергей Лужин
+     */
+    @Config.Key("dataset.path")
+    String datasetPath();
+
+    /**
+     * Возвращает количество факторов в сочетаниях, покрытие которых сохраняется
+     * при сокращении внешнего набора данных: 2 — попарное покрытие, 0 — без сокращения.
+     *
+     * @return сила покрытия сочетаний
+     * @author Сергей Лужин
+     */
+    @Config.Key("dataset.reduction.strength")
+    int datasetReductionStrength();
+
+    /**
+     * Возвращает путь к файлу длительностей шагов текущих запусков.
+     *
+     * @return строка с путем к файлу длительностей шагов
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.timings.path")
+    String perfTimingsPath();
+
+    /**
+     * Возвращает путь к файлу базовых длительностей шагов.
+     *
+     * @return строка с путем к файлу базовых длительностей
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.baseline.path")
+    String perfBaselinePath();
+
+    /**
+     * Возвращает допустимое замедление шага в процентах от базовой медианы.
+     *
+     * @return порог замедления в процентах
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.gate.threshold.percent")
+    double perfGateThresholdPercent();
+
+    /**
+     * Возвращает уровень значимости проверки регрессий производительности.
+     *
+     * @return уровень значимости
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.gate.alpha")
+    double perfGateAlpha();
+
+    /**
+     * Возвращает минимальное количество замеров шага, при котором он проверяется.
+     *
+     * @return минимальное количество замеров
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.gate.min.samples")
+    int perfGateMinSamples();
+
+    /**
+     * Возвращает количество последних запусков, замеры которых сравниваются с базовыми.
+     *
+     * @return количество последних запусков
+     * @author Сергей Лужин
+     */
+    @Config.Key("perf.gate.runs")
+    int perfGateRuns();
+
+    /**
+     * Возвращает количество виртуальных пользователей нагрузочного режима.
+     *
+     * @return количество пользователей
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.users")
+    int loadUsers();
+
+    /**
+     * Возвращает время, за которое запускаются все виртуальные пользователи.
+     *
+     * @return время разгона в секундах
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.ramp.up.seconds")
+    int loadRampUpSeconds();
+
+    /**
+     * Возвращает среднюю паузу виртуального пользователя между шагами.
+     *
+     * @return пауза между шагами в миллисекундах
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.think.time.ms")
+    long loadThinkTimeMs();
+
+    /**
+     * Возвращает целевое количество сценариев в минуту; 0 — без ограничения темпа.
+     *
+     * @return целевой темп сценариев в минуту
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.target.rate.per.minute")
+    int loadTargetRatePerMinute();
+
+    /**
+     * Возвращает длительность нагрузки, после которой новые сценарии не начинаются.
+     *
+     * @return длительность нагрузки в секундах
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.duration.seconds")
+    int loadDurationSeconds();
+
+    /**
+     * Возвращает количество сессий браузера в пуле нагрузочного режима; 0 — по числу пользователей.
+     *
+     * @return размер пула сессий
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.session.pool.size")
+    int loadSessionPoolSize();
+
+    /**
+     * Возвращает адрес стенда для нагрузочного режима; пустое значение — основной адрес Яндекс Маркета.
+     *
+     * @return строка с адресом стенда
+     * @author Сергей Лужин
+     */
+    @Config.Key("load.url")
+    String loadUrl();
+
+    /**
+     * Возвращает время ожидания прогрузки пачки карточек в видимой области (в миллисекундах).
+     *
+     * @return время ожидания прогрузки карточек
+     * @author Сергей Лужин
+     */
+    @Config.Key("card.hydration.timeout.ms")
+    long cardHydrationTimeoutMs();
+
+    /**
+     * Возвращает количество страниц постраничной выдачи, загружаемых параллельно;
+     * 0 — не переходить на следующие страницы.
+     *
+     * @return количество параллельно загружаемых страниц
+     * @author Сергей Лужин
+     */
+    @Config.Key("pagination.parallel.pages")
+    int paginationParallelPages();
+
+    /**
+     * Возвращает максимальное количество дополнительных страниц выдачи.
+     *
+     * @return максимальное количество страниц
+     * @author Сергей Лужин
+     */
+    @Config.Key("pagination.max.pages")
+    int paginationMaxPages();
+
+    /**
+     * Возвращает признак записи трассировки Chrome для каждого шага.
+     *
+     * @return true, если трассировка шагов включена
+     * @author Сергей Лужин
+     */
+    @Config.Key("trace.steps.enabled")
+    boolean traceStepsEnabled();
+
+    /**
+     * Возвращает категории трассировки Chrome через запятую.
+     *
+     * @return категории трассировки
+     * @author Сергей Лужин
+     */
+    @Config.Key("trace.categories")
+    String traceCategories();
+
+    /**
+     * Возвращает порог длинной задачи главного потока браузера (в миллисекундах).
+     *
+     * @return порог длинной задачи
+     * @author Сергей Лужин
+     */
+    @Config.Key("trace.long.task.ms")
+    long traceLongTaskMs();
+
+    /**
+     * Возвращает признак сбора метрик загрузки страниц.
+     *
+     * @return true, если метрики загрузки собираются
+     * @author Сергей Лужин
+     */
+    @Config.Key("web.metrics.enabled")
+    boolean webMetricsEnabled();
+
+    /**
+     * Возвращает путь к CSV-файлу временного ряда метрик загрузки страниц.
+     *
+     * @return строка с путем к CSV-файлу метрик
+     * @author Сергей Лужин
+     */
+    @Config.Key("web.metrics.csv.path")
+    String webMetricsCsvPath();
+
+    /**
+     * Возвращает путь к файлу временного ряда метрик загрузки страниц в формате JSON-строк.
+     *
+     * @return строка с путем к JSON-файлу метрик
+     * @author Сергей Лужин
+     */
+    @Config.Key("web.metrics.json.path")
+    String webMetricsJsonPath();
+
+    /**
+     * Возвращает признак работы сторожа зависаний тестов и шагов.
+     *
+     * @return true, если сторож зависаний включен
+     * @author Сергей Лужин
+     */
+    @Config.Key("watchdog.enabled")
+    boolean watchdogEnabled();
+
+    /**
+     * Возвращает бюджет времени одного теста (в секундах); 0 — без ограничения.
+     *
+     * @return бюджет времени теста
+     * @author Сергей Лужин
+     */
+    @Config.Key("watchdog.test.budget.seconds")
+    long watchdogTestBudgetSeconds();
+
+    /**
+     * Возвращает бюджет времени одного шага (в секундах); 0 — без ограничения.
+     *
+     * @return бюджет времени шага
+     * @author Сергей Лужин
+     */
+    @Config.Key("watchdog.step.budget.seconds")
+    long watchdogStepBudgetSeconds();
+
+    /**
+     * Возвращает время, отведенное на каждое действие при снятии диагностики зависания (в секундах).
+     *
+     * @return время на действие при снятии диагностики
+     * @author Сергей Лужин
+     */
+    @Config.Key("watchdog.diagnostics.timeout.seconds")
+    long watchdogDiagnosticsTimeoutSeconds();
+
+    /**
+     * Возвращает путь к файлу замеров времени старта JVM тестовых прогонов.
+     *
+     * @return строка с путем к файлу замеров старта
+     * @author Сергей Лужин
+     */
+    @Config.Key("startup.report.path")
+    String startupReportPath();
+
+    /**
+     * Возвращает время, через которое к опросу добавляется следующий запасной вариант локатора (в миллисекундах).
+     *
+     * @return время на вариант локатора
+     * @author Сергей Лужин
+     */
+    @Config.Key("locator.candidate.timeout.ms")
+    long locatorCandidateTimeoutMs();
+
+    /**
+     * Возвращает путь к файлу статистики успехов вариантов локаторов.
+     *
+     * @return строка с путем к файлу статистики локаторов
+     * @author Сергей Лужин
+     */
+    @Config.Key("locator.stats.path")
+    String locatorStatsPath();
 }
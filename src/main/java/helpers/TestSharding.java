@@ -0,0 +1,88 @@
+package helpers;
+
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Распределение наборов тестовых данных по шардам.
+ *
+ * Номер шарда и количество шардов задаются системными свойствами
+ * {@code shard.index} (с нуля) и {@code shard.total}. Шард набора определяется
+ * только стабильным хешем его идентификатора {@link DurationHistory#caseId(Object...)}:
+ * история длительностей локальная и меняется во время прогона, поэтому шарды,
+ * запущенные на разных агентах или в разное время, по ней разбили бы наборы по-разному,
+ * и часть наборов выполнилась бы дважды или не выполнилась вовсе.
+ * История используется только для порядка внутри шарда: от самого долгого набора к самому короткому.
+ *
+ * @author Сергей Лужин
+ */
+public class TestSharding {
+
+    /**
+     * Оставляет наборы, относящиеся к текущему шарду, и упорядочивает их от долгих к коротким.
+     *
+     * @param rows    все наборы тестовых данных
+     * @param history история длительностей наборов
+     * @return наборы текущего шарда
+     *
+     * @author Сергей Лужин
+     */
+    public static List<Arguments> shard(List<Arguments> rows, DurationHistory history) {
+        int shardTotal = Math.max(1, Integer.getInteger("shard.total", 1));
+        int shardIndex = Integer.getInteger("shard.index", 0);
+        return shard(rows, history, shardIndex, shardTotal);
+    }
+
+    /**
+     * Оставляет наборы указанного шарда и упорядочивает их от долгих к коротким.
+     *
+     * @param rows       все наборы тестовых данных
+     * @param history    история длительностей наборов
+     * @param shardIndex номер шарда, с нуля
+     * @param shardTotal количество шардов
+     * @return наборы шарда
+     *
+     * @author Сергей Лужин
+     */
+    static List<Arguments> shard(List<Arguments> rows, DurationHistory history, int shardIndex, int shardTotal) {
+        if (shardIndex < 0 || shardIndex >= shardTotal) {
+            throw new IllegalArgumentException("shard.index должен быть от 0 до " + (shardTotal - 1) + ", получено " + shardIndex);
+        }
+
+        List<Arguments> current = new ArrayList<>();
+        long expectedMs = 0;
+        for (Arguments row : rows) {
+            String caseId = DurationHistory.caseId(row.get());
+            if (shardOf(caseId, shardTotal) == shardIndex) {
+                current.add(row);
+                expectedMs += history.estimate(caseId);
+            }
+        }
+        current.sort(Comparator.comparingLong(
+                (Arguments row) -> history.estimate(DurationHistory.caseId(row.get()))).reversed());
+
+        System.out.println("[SHARD] Шард " + shardIndex + " из " + shardTotal + ": наборов " + current.size()
+                + ", ожидаемая длительность " + expectedMs + " мс");
+        return current;
+    }
+
+    /**
+     * Возвращает шард набора по CRC32 его идентификатора: значение одинаково в любой JVM.
+     *
+     * @param caseId     идентификатор набора
+     * @param shardTotal количество шардов
+     * @return номер шарда, с нуля
+     *
+     * @author Сергей Лужин
+     */
+    static int shardOf(String caseId, int shardTotal) {
+        CRC32 crc = new CRC32();
+        crc.update(caseId.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardTotal);
+    }
+}
@@ -0,0 +1,51 @@
+package helpers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие Java Flight Recorder для ожидания условия через {@link Waiter}.
+ *
+ * @author Сергей Лужин
+ */
+@Name("yandexmarket.Wait")
+@Label("Ожидание")
+@Category({"Yandex Market", "Ожидания"})
+@Description("Ожидание условия на странице через Waiter")
+public class WaitJfrEvent extends Event {
+
+    /**
+     * Название условия ожидания, по которому оно видно в логах и статистике.
+     */
+    @Label("Условие")
+    public String name;
+
+    /**
+     * Ключ xpath.properties локатора, если ожидание идёт через {@link LocatorChain}.
+     */
+    @Label("Локатор")
+    public String locator;
+
+    /**
+     * Отведённое время ожидания.
+     */
+    @Label("Таймаут")
+    @Timespan(Timespan.MILLISECONDS)
+    public long timeout;
+
+    /**
+     * Количество опросов условия.
+     */
+    @Label("Опросов")
+    public int polls;
+
+    /**
+     * Итог ожидания: выполнено, таймаут или ошибка.
+     */
+    @Label("Итог")
+    public String outcome;
+}
@@ -0,0 +1,198 @@
+package helpers;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Единый механизм ожиданий для страниц.
+ *
+ * Заменяет связку неявного ожидания драйвера и отдельных {@code WebDriverWait}:
+ * неявное ожидание в {@link Driver#create()} отключено, а все ожидания выполняются здесь.
+ * Условие опрашивается с интервалом, который увеличивается после каждой неудачной попытки
+ * (от {@code wait.poll.interval.ms} до {@code wait.poll.max.interval.ms}).
+ * Для каждого именованного условия накапливается статистика фактического времени ожидания.
+ *
+ * Один экземпляр создаётся на страницу и переиспользуется всеми её ожиданиями.
+ *
+ * @author Сергей Лужин
+ */
+public class Waiter {
+
+    /**
+     * Статистика ожиданий по названиям условий, общая для всех экземпляров.
+     */
+    private static final Map<String, WaitStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    /**
+     * Драйвер, передаваемый в условия ожидания.
+     */
+    private final WebDriver driver;
+
+    /**
+     * Создаёт механизм ожиданий для драйвера.
+     *
+     * @param driver экземпляр WebDriver
+     *
+     * @author Сергей Лужин
+     */
+    public Waiter(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Ждёт выполнения условия в течение стандартного таймаута.
+     *
+     * @param name      название условия для логов и статистики
+     * @param condition условие; считается выполненным, если вернуло не null и не false
+     * @param <T>       тип результата условия
+     * @return результат условия
+     * @throws TimeoutException если условие не выполнилось за отведённое время
+     *
+     * @author Сергей Лужин
+     */
+    public <T> T until(String name, Function<? super WebDriver, T> condition) {
+        return until(name, condition, TimeUnit.SECONDS.toMillis(testProperties.defaultTimeout()));
+    }
+
+    /**
+     * Ждёт выполнения условия в течение указанного времени
+     * со стандартным начальным интервалом опроса.
+     *
+     * @param name      название условия для логов и статистики
+     * @param condition условие; считается выполненным, если вернуло не null и не false
+     * @param timeoutMs время ожидания в миллисекундах
+     * @param <T>       тип результата условия
+     * @return результат условия
+     * @throws TimeoutException если условие не выполнилось за отведённое время
+     *
+     * @author Сергей Лужин
+     */
+    public <T> T until(String name, Function<? super WebDriver, T> condition, long timeoutMs) {
+        return until(name, condition, timeoutMs, testProperties.waitPollIntervalMs());
+    }
+
+    /**
+     * Ждёт выполнения условия, опрашивая его с растущим интервалом.
+     * Исключения об отсутствии или устаревании элемента во время опроса игнорируются.
+     *
+     * @param name           название условия для логов и статистики
+     * @param condition      условие; считается выполненным, если вернуло не null и не false
+     * @param timeoutMs      время ожидания в миллисекундах
+     * @param pollIntervalMs начальный интервал опроса в миллисекундах
+     * @param <T>            тип результата условия
+     * @return результат условия
+     * @throws TimeoutException если условие не выполнилось за отведённое время
+     *
+     * @author Сергей Лужин
+     */
+    public <T> T until(String name, Function<? super WebDriver, T> condition, long timeoutMs, long pollIntervalMs) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        double interval = Math.max(1, pollIntervalMs);
+        RuntimeException lastError = null;
+
+        WaitJfrEvent event = new WaitJfrEvent();
+        event.name = name;
+        event.locator = LocatorChain.currentKey();
+        event.timeout = timeoutMs;
+        event.outcome = "ошибка";
+        event.begin();
+        try {
+            while (true) {
+                event.polls++;
+                try {
+                    T result = condition.apply(driver);
+                    if (result != null && !Boolean.FALSE.equals(result)) {
+                        record(name, start, true);
+                        event.outcome = "выполнено";
+                        return result;
+                    }
+                } catch (NotFoundException | StaleElementReferenceException e) {
+                    lastError = e;
+                }
+
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    long waitedMs = record(name, start, false);
+                    event.outcome = "таймаут";
+                    throw new TimeoutException("Условие '" + name + "' не выполнилось за " + waitedMs + " мс", lastError);
+                }
+
+                try {
+                    Thread.sleep(Math.min((long) interval, remainingMs));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                interval = Math.min(interval * testProperties.waitPollBackoff(), testProperties.waitPollMaxIntervalMs());
+            }
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static long record(String name, long start, boolean success) {
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        STATISTICS.computeIfAbsent(name, k -> new WaitStatistics()).add(waitedMs, success);
+        return waitedMs;
+    }
+
+    /**
+     * Возвращает текстовый отчёт о накопленных ожиданиях:
+     * количество, число таймаутов, суммарное и максимальное время по каждому условию.
+     *
+     * @return отчёт об ожиданиях
+     *
+     * @author Сергей Лужин
+     */
+    public static String statisticsReport() {
+        StringBuilder report = new StringBuilder("[WAIT] Статистика ожиданий:\n");
+        new TreeMap<>(STATISTICS).forEach((name, stats) -> report.append("  ").append(name).append(": ").append(stats).append('\n'));
+        return report.toString();
+    }
+
+    /**
+     * Очищает накопленную статистику ожиданий.
+     *
+     * @author Сергей Лужин
+     */
+    public static void resetStatistics() {
+        STATISTICS.clear();
+    }
+
+    /**
+     * Накопленная статистика одного условия ожидания.
+     *
+     * @author Сергей Лужин
+     */
+    private static class WaitStatistics {
+        private long count;
+        private long timeouts;
+        private long totalMs;
+        private long maxMs;
+
+        synchronized void add(long waitedMs, boolean success) {
+            count++;
+            if (!success) {
+                timeouts++;
+            }
+            totalMs += waitedMs;
+            maxMs = Math.max(maxMs, waitedMs);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return count + " раз, таймаутов " + timeouts + ", всего " + totalMs + " мс, максимум " + maxMs + " мс";
+        }
+    }
+}
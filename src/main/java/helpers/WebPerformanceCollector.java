@@ -0,0 +1,209 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static helpers.Properties.testProperties;
+
+/**
+ * Сбор метрик загрузки страниц из браузера во время тестов.
+ *
+ * Одним вызовом скрипта читает Navigation Timing, Resource Timing,
+ * Largest Contentful Paint, Cumulative Layout Shift и длинные задачи.
+ * Ресурсы, сдвиги и длинные задачи считаются с момента предыдущего замера на том же документе,
+ * поэтому замер после применения фильтра показывает стоимость именно перезагрузки выдачи.
+ * После замера буфер Resource Timing очищается: иначе на долгой выдаче с подгрузкой
+ * он заполняется (по умолчанию 250 записей) и новые ресурсы перестают учитываться.
+ * Каждый замер прикладывается к отчёту Allure и дописывается во временные ряды
+ * {@code web.metrics.csv.path} и {@code web.metrics.json.path}.
+ *
+ * @author Сергей Лужин
+ */
+public class WebPerformanceCollector {
+
+    /**
+     * Скрипт сбора метрик. Наблюдатели с buffered получают записи асинхронно,
+     * поэтому результат возвращается через колбэк на следующем тике.
+     */
+    private static final String METRICS_SCRIPT =
+            "var done = arguments[arguments.length - 1];" +
+            "var since = window.__perfMetricsSince || 0;" +
+            "var now = performance.now();" +
+            "var result = {url: location.href, since: since};" +
+            "try {" +
+            "  var nav = performance.getEntriesByType('navigation')[0];" +
+            "  if (nav) { result.ttfb = nav.responseStart; result.domContentLoaded = nav.domContentLoadedEventEnd;" +
+            "             result.load = nav.loadEventEnd; result.navigationType = nav.type; }" +
+            "  var resources = performance.getEntriesByType('resource').filter(function (r) { return r.startTime >= since; });" +
+            "  result.resources = resources.length;" +
+            "  result.transferBytes = resources.reduce(function (sum, r) { return sum + (r.transferSize || 0); }, 0);" +
+            "  result.slowestResources = resources.sort(function (a, b) { return b.duration - a.duration; }).slice(0, 5)" +
+            "      .map(function (r) { return Math.round(r.duration) + ' мс ' + r.name; });" +
+            "  performance.clearResourceTimings();" +
+            "} catch (e) { result.error = String(e); }" +
+            "var entries = {};" +
+            "function observe(type) {" +
+            "  try {" +
+            "    var observer = new PerformanceObserver(function () {});" +
+            "    observer.observe({type: type, buffered: true});" +
+            "    return observer;" +
+            "  } catch (e) { return null; }" +
+            "}" +
+            "var observers = {lcp: observe('largest-contentful-paint'), cls: observe('layout-shift'), longtask: observe('longtask')};" +
+            "setTimeout(function () {" +
+            "  Object.keys(observers).forEach(function (key) {" +
+            "    entries[key] = observers[key] ? observers[key].takeRecords() : [];" +
+            "    if (observers[key]) observers[key].disconnect();" +
+            "  });" +
+            "  var lcp = entries.lcp[entries.lcp.length - 1];" +
+            "  if (lcp) { result.lcp = lcp.startTime; }" +
+            "  var cls = 0, session = 0, sessionStart = 0, last = 0;" +
+            "  entries.cls.filter(function (s) { return !s.hadRecentInput && s.startTime >= since; }).forEach(function (s) {" +
+            "    if (s.startTime - last > 1000 || s.startTime - sessionStart > 5000) { session = 0; sessionStart = s.startTime; }" +
+            "    session += s.value; last = s.startTime; cls = Math.max(cls, session);" +
+            "  });" +
+            "  result.cls = cls;" +
+            "  var tasks = entries.longtask.filter(function (t) { return t.startTime >= since; });" +
+            "  result.longTasks = tasks.length;" +
+            "  result.longTasksMs = tasks.reduce(function (sum, t) { return sum + t.duration; }, 0);" +
+            "  result.totalBlockingMs = tasks.reduce(function (sum, t) { return sum + Math.max(0, t.duration - 50); }, 0);" +
+            "  window.__perfMetricsSince = now;" +
+            "  done(result);" +
+            "}, 0);";
+
+    /**
+     * Колонки CSV-ряда в порядке вывода.
+     */
+    private static final List<String> CSV_COLUMNS = Arrays.asList(
+            "timestamp", "test", "label", "url", "ttfb", "domContentLoaded", "load", "resources", "transferBytes",
+            "lcp", "cls", "longTasks", "longTasksMs", "totalBlockingMs");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Снимает метрики текущей страницы, прикладывает их к отчёту Allure и дописывает во временные ряды.
+     * Ошибки сбора не должны ронять тест, поэтому только выводятся в лог.
+     *
+     * @param label название события, после которого сняты метрики, например переход или применение фильтра
+     *
+     * @author Сергей Лужин
+     */
+    @SuppressWarnings("unchecked")
+    public static void collect(String label) {
+        if (!testProperties.webMetricsEnabled()) {
+            return;
+        }
+        WebDriver driver = Driver.getWebDriver();
+        // Скрипт выполняем без EventFiringWebDriver, чтобы не вызывать слушатель повторно
+        if (driver instanceof EventFiringWebDriver) {
+            driver = ((EventFiringWebDriver) driver).getWrappedDriver();
+        }
+        if (!(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        try {
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(METRICS_SCRIPT);
+            if (!(result instanceof Map)) {
+                return;
+            }
+            metrics.put("timestamp", System.currentTimeMillis());
+            metrics.put("test", currentTestName());
+            metrics.put("label", label);
+            metrics.putAll((Map<String, Object>) result);
+        } catch (WebDriverException e) {
+            System.out.println("[METRICS] Не удалось снять метрики страницы: " + e.getClass().getSimpleName());
+            return;
+        }
+
+        try {
+            String json = MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(metrics);
+            Allure.addAttachment("Метрики загрузки: " + label, "application/json", json, ".json");
+            append(Paths.get(testProperties.webMetricsJsonPath()), MAPPER.writeValueAsString(metrics), null);
+            append(Paths.get(testProperties.webMetricsCsvPath()), csvRow(metrics), String.join(",", CSV_COLUMNS));
+        } catch (IOException e) {
+            System.out.println("[METRICS] Не удалось сохранить метрики загрузки: " + e);
+        }
+    }
+
+    /**
+     * Формирует строку CSV из метрик в порядке {@link #CSV_COLUMNS}.
+     *
+     * @param metrics метрики замера
+     * @return строка CSV
+     *
+     * @author Сергей Лужин
+     */
+    private static String csvRow(Map<String, Object> metrics) {
+        return CSV_COLUMNS.stream()
+                .map(column -> {
+                    Object value = metrics.get(column);
+                    if (value == null) {
+                        return "";
+                    }
+                    if (value instanceof Double) {
+                        return String.format(Locale.ROOT, "%.3f", (Double) value);
+                    }
+                    String text = value.toString();
+                    return text.contains(",") || text.contains("\"")
+                            ? "\"" + text.replace("\"", "\"\"") + "\""
+                            : text;
+                })
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Дописывает строку в файл временного ряда, создавая файл с заголовком при необходимости.
+     *
+     * @param path   путь к файлу
+     * @param line   строка данных
+     * @param header заголовок нового файла или null
+     * @throws IOException если файл не удалось записать
+     *
+     * @author Сергей Лужин
+     */
+    private static synchronized void append(Path path, String line, String header) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        StringBuilder text = new StringBuilder();
+        if (header != null && !Files.exists(path)) {
+            text.append(header).append(System.lineSeparator());
+        }
+        text.append(line).append(System.lineSeparator());
+        Files.write(path, text.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Возвращает название текущего теста из контекста Allure.
+     *
+     * @return название теста или пустая строка вне теста
+     *
+     * @author Сергей Лужин
+     */
+    private static String currentTestName() {
+        AtomicReference<String> name = new AtomicReference<>("");
+        Allure.getLifecycle().getCurrentTestCase().ifPresent(uuid ->
+                Allure.getLifecycle().updateTestCase(uuid, testResult -> name.set(testResult.getName())));
+        return name.get();
+    }
+}
@@ -5,6 +5,7 @@ import org.aeonbits.owner.Config;
 /**
  * Конфигурационный интерфейс для хранения XPath-локаторов элементов Яндекс Маркета.
  * Описывает ключи, по которым из файла xpath.properties будут загружаться значения XPath.
+ * Значение может содержать запасные варианты через {@code ||}, см. {@link LocatorChain}.
  *
  * Файл конфигурации:
  * src/main/resources/xpath.properties
@@ -129,4 +130,13 @@ public interface XpathProperties extends Config {
      */
     @Config.Key("ym.card.price.addon")
     String ymCardPriceAddonXpath();
+
+    /**
+     * Возвращает XPath для поиска ссылок на страницы выдачи.
+     *
+     * @return XPath для ссылок на страницы выдачи
+     * @author Сергей Лужин
+     */
+    @Config.Key("ym.pagination.page.link")
+    String ymPaginationPageLinkXpath();
 }
@@ -0,0 +1,233 @@
+package pages;
+
+import entity.Product;
+import helpers.Driver;
+import helpers.LocatorChain;
+import helpers.SessionPool;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static helpers.Properties.testProperties;
+import static helpers.Properties.xpathProperties;
+
+/**
+ * Сбор товаров с постраничной выдачи.
+ *
+ * Если выдача не подгружается бесконечной прокруткой, а разбита на страницы
+ * со ссылками с параметром {@code page}, следующие страницы
+ * открываются по адресу с {@code page=N} сразу по {@code pagination.parallel.pages} штук
+ * в отдельных сессиях браузера из общего {@link SessionPool}, а найденные товары
+ * добавляются к товарам страницы в порядке страниц без повторов.
+ *
+ * @author Сергей Лужин
+ */
+public class PaginationHarvester {
+
+    /**
+     * Параметр номера страницы в адресе выдачи.
+     */
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("([?&]page=)(\\d+)");
+
+    /**
+     * Пул сессий для загрузки страниц; создаётся при первой постраничной выдаче.
+     */
+    private static SessionPool pool;
+
+    /**
+     * Потоки, загружающие страницы выдачи.
+     */
+    private static ExecutorService executor;
+
+    /**
+     * Проверяет, разбита ли текущая выдача на страницы.
+     *
+     * @param driver драйвер с открытой выдачей
+     * @return true, если на странице есть ссылки на страницы выдачи с параметром {@code page}
+     *
+     * @author Сергей Лужин
+     */
+    public static boolean isPaginated(WebDriver driver) {
+        // Кнопка «Показать ещё» без ссылок не гарантирует, что адреса с page=N существуют
+        return testProperties.paginationParallelPages() > 0
+                && !driver.findElements(
+                        new LocatorChain("ym.pagination.page.link", xpathProperties.ymPaginationPageLinkXpath()).asBy()).isEmpty();
+    }
+
+    /**
+     * Собирает товары со следующих страниц выдачи в {@code productsOnPage} страницы,
+     * пока очередная страница не перестанет приносить новые товары или не загрузится,
+     * не встретится товар, удовлетворяющий условию, или не будет просмотрено {@code maxDepth} карточек.
+     * Как и в {@link YandexMarketPage#collectProductsUntil}, просмотренными считаются и карточки-повторы.
+     *
+     * @param ymPage        страница с первой частью выдачи
+     * @param stopCondition условие, при выполнении которого сбор прекращается
+     * @param maxDepth      максимальное количество просматриваемых карточек
+     * @param viewed        количество карточек, просмотренных на первой части выдачи
+     * @return позиция найденного товара в {@code productsOnPage} или -1, если товар не найден
+     *
+     * @author Сергей Лужин
+     */
+    public static int harvest(YandexMarketPage ymPage, Predicate<Product> stopCondition, int maxDepth, int viewed) {
+        WebDriver driver = ymPage.driver;
+        String currentUrl = driver.getCurrentUrl();
+        Set<Cookie> cookies = driver.manage().getCookies();
+        int parallelPages = testProperties.paginationParallelPages();
+        int nextPage = currentPage(currentUrl) + 1;
+        int lastPage = currentPage(currentUrl) + testProperties.paginationMaxPages();
+
+        System.out.println("[PAGINATION] Выдача разбита на страницы, загружаем по " + parallelPages + " страниц параллельно");
+        while (nextPage <= lastPage) {
+            List<Future<List<Product>>> pages = new ArrayList<>();
+            for (int page = nextPage; page < nextPage + parallelPages && page <= lastPage; page++) {
+                String url = pageUrl(currentUrl, page);
+                pages.add(executor().submit(() -> collectPage(url, cookies)));
+            }
+
+            for (Future<List<Product>> page : pages) {
+                List<Product> products;
+                try {
+                    products = page.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                } catch (ExecutionException e) {
+                    // Товары следующих страниц уже не примыкают к собранным, поэтому дальше не собираем
+                    System.out.println("[PAGINATION] Не удалось собрать страницу выдачи ("
+                            + e.getCause().getClass().getSimpleName() + "), сбор прерван из-за ошибки. ЗАВЕРШАЕМ");
+                    pages.forEach(rest -> rest.cancel(false));
+                    return -1;
+                }
+
+                int added = 0;
+                for (Product product : products) {
+                    if (viewed >= maxDepth) {
+                        System.out.println("[PAGINATION] Просмотрено " + viewed + " карточек, достигнут предел глубины");
+                        pages.forEach(rest -> rest.cancel(false));
+                        return -1;
+                    }
+                    viewed++;
+                    if (ymPage.productsOnPage.contains(product)) {
+                        continue;
+                    }
+                    ymPage.productsOnPage.add(product);
+                    added++;
+                    if (stopCondition.test(product)) {
+                        System.out.println("[PAGINATION] Найден искомый товар на позиции " + (ymPage.productsOnPage.size() - 1));
+                        pages.forEach(rest -> rest.cancel(false));
+                        return ymPage.productsOnPage.size() - 1;
+                    }
+                }
+
+                // Страницы за концом выдачи пустые или повторяют последнюю
+                if (added == 0) {
+                    System.out.println("[PAGINATION] Страница выдачи не принесла новых товаров. ЗАВЕРШАЕМ");
+                    pages.forEach(rest -> rest.cancel(false));
+                    return -1;
+                }
+                System.out.println("[PAGINATION] Со страницы добавлено " + added + " товаров, всего " + ymPage.productsOnPage.size());
+            }
+            nextPage += parallelPages;
+        }
+        return -1;
+    }
+
+    /**
+     * Собирает товары одной страницы выдачи в свободной сессии пула.
+     *
+     * @param url     адрес страницы выдачи
+     * @param cookies cookies основной сессии (регион, настройки выдачи)
+     * @return товары страницы в порядке выдачи
+     * @throws InterruptedException если ожидание свободной сессии прервано
+     * @throws WebDriverException   если страницу не удалось собрать; сессия при этом заменяется
+     *
+     * @author Сергей Лужин
+     */
+    private static List<Product> collectPage(String url, Set<Cookie> cookies) throws InterruptedException {
+        WebDriver session = pool().acquire();
+        boolean broken = false;
+        Driver.bindSession(session);
+        try {
+            session.get(url);
+            if (!cookies.isEmpty()) {
+                cookies.forEach(cookie -> session.manage().addCookie(cookie));
+                session.navigate().refresh();
+            }
+            YandexMarketPage page = new YandexMarketPage(session);
+            page.collectCurrentPageProducts();
+            return page.productsOnPage;
+        } catch (WebDriverException e) {
+            // Пустой список здесь выглядел бы как конец выдачи, поэтому ошибка пробрасывается в harvest
+            broken = true;
+            System.out.println("[PAGINATION] Не удалось собрать " + url + ": " + e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            Driver.bindSession(null);
+            pool().release(session, broken);
+        }
+    }
+
+    /**
+     * Возвращает номер текущей страницы выдачи из адреса.
+     *
+     * @param url адрес выдачи
+     * @return номер страницы; 1, если параметр не задан
+     *
+     * @author Сергей Лужин
+     */
+    static int currentPage(String url) {
+        Matcher matcher = PAGE_PARAMETER.matcher(url);
+        return matcher.find() ? Integer.parseInt(matcher.group(2)) : 1;
+    }
+
+    /**
+     * Возвращает адрес указанной страницы выдачи.
+     *
+     * @param url  адрес текущей страницы выдачи
+     * @param page номер нужной страницы
+     * @return адрес страницы
+     *
+     * @author Сергей Лужин
+     */
+    static String pageUrl(String url, int page) {
+        Matcher matcher = PAGE_PARAMETER.matcher(url);
+        if (matcher.find()) {
+            return matcher.replaceFirst("$1" + page);
+        }
+        int fragment = url.indexOf('#');
+        String base = fragment < 0 ? url : url.substring(0, fragment);
+        String tail = fragment < 0 ? "" : url.substring(fragment);
+        return base + (base.contains("?") ? "&" : "?") + "page=" + page + tail;
+    }
+
+    private static synchronized SessionPool pool() {
+        if (pool == null) {
+            pool = new SessionPool(testProperties.paginationParallelPages());
+            SessionPool created = pool;
+            Runtime.getRuntime().addShutdownHook(new Thread(created::close));
+        }
+        return pool;
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(testProperties.paginationParallelPages(), runnable -> {
+                Thread thread = new Thread(runnable, "pagination");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
@@ -1,17 +1,26 @@
 package pages;
 
 import entity.Product;
+import helpers.CardHydration;
 import helpers.Driver;
+import helpers.HangWatchdog;
+import helpers.LazyElement;
+import helpers.LocatorChain;
 import helpers.PageOffsetLocator;
+import helpers.Waiter;
+import helpers.WebPerformanceCollector;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import static org.openqa.selenium.Keys.ENTER;
-import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfElementLocated;
 
 import static helpers.Properties.testProperties;
 import static helpers.Properties.xpathProperties;
@@ -40,38 +49,87 @@ public class YandexMarketPage {
     protected WebDriver driver;
 
     /**
-     * Веб-элемент поля ввода поискового запроса на странице Яндекс Маркета.
+     * Поле ввода поискового запроса на странице Яндекс Маркета.
      */
-    protected WebElement searchInput;
+    protected LazyElement searchInput;
 
     /**
-     * Веб-элемент кнопки запуска поиска по введённому запросу.
+     * Кнопка запуска поиска по введённому запросу.
      */
-    protected WebElement searchButton;
+    protected LazyElement searchButton;
 
     /**
-     * Веб-элемент кнопки запуска поиска по введённому запросу.
+     * Кнопка открытия каталога.
      */
-    protected WebElement catalogButton;
+    protected LazyElement catalogButton;
 
-    protected WebDriverWait wait;
+    /**
+     * Локатор карточек товаров выдачи.
+     */
+    private final By cardsLocator =
+            new LocatorChain("ym.card.on.all.pages", xpathProperties.ymCardsOnAllPagesXpath()).asBy();
 
     /**
-     * Конструктор инициализирует элементы страницы,
-     * ожидая появления ключевых элементов поиска и каталога.
-     *
+     * Локатор заголовка внутри карточки товара.
+     */
+    private final By cardTitleLocator =
+            new LocatorChain("ym.card.title.addon", xpathProperties.ymCardTitleAddonXpath()).asBy();
+
+    /**
+     * Локатор цены внутри карточки товара.
+     */
+    private final By cardPriceLocator =
+            new LocatorChain("ym.card.price.addon", xpathProperties.ymCardPriceAddonXpath()).asBy();
+
+    /**
+     * Карточки, которые не прогрузились за время ожидания пачки.
+     * Заголовок и цену таких карточек не ждём полный стандартный таймаут.
+     */
+    private final Set<WebElement> unhydratedCards = new HashSet<>();
+
+    /**
+     * Номер последней карточки, прогрузка которой уже проверена.
+     */
+    private int hydrationCheckedUpTo = -1;
+
+    /**
+     * Механизм ожиданий страницы, переиспользуемый всеми её методами.
+     */
+    protected Waiter waiter;
+
+    /**
+     * Конструктор создаёт ленивые ссылки на элементы поиска и каталога.
+     * Сами элементы ищутся только при первом использовании.
+     * Количество собранных товаров регистрируется в {@link HangWatchdog} для диагностики зависаний.
      *
      * @author Сергей Лужин
      */
     public YandexMarketPage() {
-        this.driver = Driver.getWebDriver();
-        this.wait = new WebDriverWait(driver, testProperties.defaultTimeout());
+        this(Driver.getWebDriver());
+        HangWatchdog.probe("Товаров собрано на странице", () -> productsOnPage.size());
+    }
 
-        this.searchInput = driver.findElement(By.xpath(xpathProperties.ymSearchInputXpath()));
+    /**
+     * Создаёт страницу для отдельной сессии браузера без регистрации в {@link HangWatchdog}:
+     * потоки {@link PaginationHarvester} не отслеживаются, и их пробы только копились бы.
+     *
+     * @param driver сессия браузера страницы
+     *
+     * @author Сергей Лужин
+     */
+    YandexMarketPage(WebDriver driver) {
+        this.driver = driver;
+        this.waiter = new Waiter(driver);
+
+        this.searchInput = new LazyElement("Поле поиска",
+                new LocatorChain("ym.search.text.input", xpathProperties.ymSearchInputXpath()), waiter);
 
-        this.searchButton = driver.findElement(By.xpath(xpathProperties.ymSearchButtonXpath()));
+        this.searchButton = new LazyElement("Кнопка поиска",
+                new LocatorChain("ym.search.button", xpathProperties.ymSearchButtonXpath()), waiter);
 
-        this.catalogButton = driver.findElement(By.xpath(xpathProperties.ymCatalogButtonXpath()));
+        this.catalogButton = new LazyElement("Кнопка каталога",
+                new LocatorChain("ym.catalog.button", xpathProperties.ymCatalogButtonXpath()), waiter,
+                ExpectedConditions::visibilityOfElementLocated);
 
         this.productsOnPage = new ArrayList<>();
     }
@@ -84,18 +142,17 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void findViaSearchInput(String query) {
-        searchInput = Driver.getWebDriver().findElement(By.xpath(xpathProperties.ymSearchInputXpath()));
         searchInput.sendKeys(query);
         searchInput.sendKeys(ENTER);
     }
 
     /**
-     * Нажимает кнопку каталога.
+     * Нажимает кнопку каталога, дождавшись её видимости.
+     * Кнопка ищется один раз: ожидание видимости и есть её поиск в {@link LazyElement}.
      *
      * @author Сергей Лужин
      */
     public void clickOnCatalogButton() {
-        wait.until(visibilityOfElementLocated(By.xpath(xpathProperties.ymCatalogButtonXpath())));
         catalogButton.click();
     }
 
@@ -107,10 +164,12 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void hoverOnCategoryInCatalog(String category) {
-        String xpath = xpathProperties.ymCatalogCategoryXpath().replace("*category*", category);
+        LocatorChain locator = new LocatorChain("ym.catalog.category", xpathProperties.ymCatalogCategoryXpath())
+                .with("*category*", category);
 
-        WebElement categoryElement = wait.until(
-                visibilityOfElementLocated(By.xpath(xpath))
+        WebElement categoryElement = locator.until(waiter,
+                "Категория каталога",
+                ExpectedConditions::visibilityOfElementLocated
         );
 
         Actions actions = new Actions(driver);
@@ -125,10 +184,12 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void clickOnSubcategoryInCatalog(String subcategory) {
-        String xpath = xpathProperties.ymCatalogSubcategoryXpath().replace("*subcategory*", subcategory);
+        LocatorChain locator = new LocatorChain("ym.catalog.subcategory", xpathProperties.ymCatalogSubcategoryXpath())
+                .with("*subcategory*", subcategory);
 
-        WebElement subcategoryElement = wait.until(
-                visibilityOfElementLocated(By.xpath(xpath))
+        WebElement subcategoryElement = locator.until(waiter,
+                "Подкатегория каталога",
+                ExpectedConditions::visibilityOfElementLocated
         );
 
         subcategoryElement.click();
@@ -141,10 +202,11 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void setFilterPriceMin(int price) {
-        String xpath = xpathProperties.ymFilterPriceMinXpath();
+        LocatorChain locator = new LocatorChain("ym.filter.priceMin", xpathProperties.ymFilterPriceMinXpath());
 
-        WebElement inputFilterPriceMin = wait.until(
-                visibilityOfElementLocated(By.xpath(xpath))
+        WebElement inputFilterPriceMin = locator.until(waiter,
+                "Поле минимальной цены",
+                ExpectedConditions::visibilityOfElementLocated
         );
 
         inputFilterPriceMin.sendKeys(Integer.toString(price));
@@ -157,10 +219,11 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void setFilterPriceMax(int price) {
-        String xpath = xpathProperties.ymFilterPriceMaxXpath();
+        LocatorChain locator = new LocatorChain("ym.filter.priceMax", xpathProperties.ymFilterPriceMaxXpath());
 
-        WebElement inputFilterPriceMax = wait.until(
-                visibilityOfElementLocated(By.xpath(xpath))
+        WebElement inputFilterPriceMax = locator.until(waiter,
+                "Поле максимальной цены",
+                ExpectedConditions::visibilityOfElementLocated
         );
 
         inputFilterPriceMax.sendKeys(Integer.toString(price));
@@ -175,10 +238,12 @@ public class YandexMarketPage {
      */
     public void clickBrandCheckbox(List<String> brands) {
         for (String brand : brands) {
-            String xpath = xpathProperties.ymFilterBrandXpath().replace("*brand*", brand);
+            LocatorChain locator = new LocatorChain("ym.filter.brand", xpathProperties.ymFilterBrandXpath())
+                .with("*brand*", brand);
 
-            WebElement brandFilterElement = wait.until(
-                    visibilityOfElementLocated(By.xpath(xpath))
+            WebElement brandFilterElement = locator.until(waiter,
+                    "Чекбокс бренда",
+                    ExpectedConditions::visibilityOfElementLocated
             );
 
             brandFilterElement.click();
@@ -189,6 +254,8 @@ public class YandexMarketPage {
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
+
+            WebPerformanceCollector.collect("Фильтр бренда: " + brand);
         }
     }
 
@@ -200,6 +267,46 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public void scrollToBottomAndCollectAllProducts() {
+        collectProductsUntil(product -> false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Последовательно прокручивает страницу вниз и собирает товары в список {@code productsOnPage},
+     * пока не встретится товар, удовлетворяющий условию, не будет просмотрено {@code maxDepth} карточек
+     * или не будет достигнут конец страницы.
+     *
+     * @param stopCondition условие, при выполнении которого сбор прекращается
+     * @param maxDepth      максимальное количество просматриваемых карточек
+     * @return позиция найденного товара в {@code productsOnPage} или -1, если товар не найден
+     *
+     * @author Сергей Лужин
+     */
+    public int collectProductsUntil(Predicate<Product> stopCondition, int maxDepth) {
+        return collectProductsUntil(stopCondition, maxDepth, true);
+    }
+
+    /**
+     * Собирает все товары только с текущей страницы выдачи, не переходя на следующие страницы.
+     * Используется {@link PaginationHarvester} для отдельных страниц постраничной выдачи.
+     *
+     * @author Сергей Лужин
+     */
+    public void collectCurrentPageProducts() {
+        collectProductsUntil(product -> false, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Прокручивает страницу и собирает товары; по достижении конца постраничной выдачи
+     * при {@code followPagination} продолжает сбор со следующих страниц через {@link PaginationHarvester}.
+     *
+     * @param stopCondition    условие, при выполнении которого сбор прекращается
+     * @param maxDepth         максимальное количество просматриваемых карточек
+     * @param followPagination собирать ли товары со следующих страниц выдачи
+     * @return позиция найденного товара в {@code productsOnPage} или -1, если товар не найден
+     *
+     * @author Сергей Лужин
+     */
+    private int collectProductsUntil(Predicate<Product> stopCondition, int maxDepth, boolean followPagination) {
         JavascriptExecutor js = (JavascriptExecutor) driver;
 
         int doubledPositionsCount = 0;
@@ -207,15 +314,29 @@ public class YandexMarketPage {
 
         while (true) {
             List<WebElement> productElemnets =
-                    driver.findElements(By.xpath(xpathProperties.ymCardsOnAllPagesXpath()));
+                    driver.findElements(cardsLocator);
 
             trueCurrentIndex = productsOnPage.size() + doubledPositionsCount;
 
+            if (trueCurrentIndex >= maxDepth) {
+                System.out.println("Просмотрено " + trueCurrentIndex + " карточек, достигнут предел глубины. ЗАВЕРШАЕМ");
+                return -1;
+            }
+
             if (trueCurrentIndex < productElemnets.size()) {
                 new Actions(driver)
                         .moveToElement(productElemnets.get(trueCurrentIndex))
                         .perform();
 
+                if (trueCurrentIndex > hydrationCheckedUpTo) {
+                    // Одно ожидание на все карточки в видимой области вместо ожидания каждой карточки
+                    CardHydration.Batch batch = CardHydration.awaitViewportHydration(js, waiter, productElemnets, trueCurrentIndex);
+                    hydrationCheckedUpTo = Math.max(batch.getLastIndex(), trueCurrentIndex);
+                    for (int index : batch.getUnhydrated()) {
+                        unhydratedCards.add(productElemnets.get(index));
+                    }
+                }
+
                 System.out.println("Пробуем добавить товар под индексом: " + trueCurrentIndex);
                 boolean isAdded = Product.saveProductFromElement(productElemnets.get(trueCurrentIndex), this);
                 System.out.println("На данный момент было добавлено: " + productsOnPage.size() + " товаров");
@@ -225,6 +346,10 @@ public class YandexMarketPage {
                     System.out.println("НАЙДЕНА ДУБЛИРОВАННА ПОЗИЦИЯ." +
                             "Общее количество дублированных позиций: " + doubledPositionsCount);
                 }
+                else if (stopCondition.test(productsOnPage.get(productsOnPage.size() - 1))) {
+                    System.out.println("Найден искомый товар на позиции " + (productsOnPage.size() - 1) + ". ЗАВЕРШАЕМ");
+                    return productsOnPage.size() - 1;
+                }
             }
             else {
                 js.executeScript("window.scrollBy(0, arguments[0]);", 500);
@@ -233,12 +358,16 @@ public class YandexMarketPage {
             if (hasReachedBottomOfPage(js)) {
                 System.out.println("Пытаемся завершить скроллинг, так как был достигнут конец страницы");
 
-                boolean stillAtBottom = isStillAtBottomAfterWait(js, driver);
+                boolean stillAtBottom = isStillAtBottomAfterWait(js, waiter);
 
                 if (stillAtBottom) {
+                    if (followPagination && PaginationHarvester.isPaginated(driver)) {
+                        System.out.println("Страница больше не прогрузилась, но выдача продолжается на следующих страницах");
+                        return PaginationHarvester.harvest(this, stopCondition, maxDepth, productsOnPage.size() + doubledPositionsCount);
+                    }
                     System.out.println("Подождали, страница больше не прогрузилась. ЗАВЕРШАЕМ");
                     System.out.println("Финальное количество добавленных товаров: " + productsOnPage.size());
-                    break;
+                    return -1;
                 }
                 else {
                     System.out.println("Подождали, страница прогрузилась еще. ПРОДОЛЖАЕМ");
@@ -256,20 +385,26 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public String getProductCardTitle(WebElement element){
-        WebDriverWait wait = new WebDriverWait(
-                driver,
-                testProperties.defaultTimeout()
-        );
+        By titleLocator = cardTitleLocator;
 
         try {
-            return wait.until(d -> {
-                WebElement titleElement =
-                        element.findElement(By.xpath(xpathProperties.ymCardTitleAddonXpath()));
+            // Отсутствующий заголовок не ждём весь стандартный таймаут
+            waiter.until("Заголовок карточки присутствует",
+                    d -> element.findElements(titleLocator).isEmpty() ? null : true,
+                    testProperties.optionalFieldTimeoutMs());
+        } catch (TimeoutException e) {
+            System.out.println("[WAIT] У карточки нет заголовка");
+            return "";
+        }
+
+        try {
+            return waiter.until("Заголовок карточки непустой", d -> {
+                WebElement titleElement = element.findElement(titleLocator);
 
                 String text = titleElement.getText().trim();
-                // если текст пустой — возвращаем null, WebDriverWait продолжит ждать
+                // если текст пустой — возвращаем null, ожидание продолжится
                 return text.isEmpty() ? null : text;
-            });
+            }, cardTextTimeoutMs(element));
         } catch (TimeoutException e) {
             System.out.println("[WAIT] Заголовок товара не стал непустым за отведённое время");
             return "";
@@ -286,15 +421,21 @@ public class YandexMarketPage {
      * @author Сергей Лужин
      */
     public int getProductCardPrice(WebElement element) {
-        WebDriverWait wait = new WebDriverWait(
-                driver,
-                testProperties.defaultTimeout()
-        );
+        By priceLocator = cardPriceLocator;
+
+        try {
+            // Карточка может быть без цены: такой промах должен стоить миллисекунды
+            waiter.until("Цена карточки присутствует",
+                    d -> element.findElements(priceLocator).isEmpty() ? null : true,
+                    testProperties.optionalFieldTimeoutMs());
+        } catch (TimeoutException e) {
+            System.out.println("[WAIT] У карточки нет цены");
+            return 0;
+        }
 
         try {
-            return wait.until(d -> {
-                WebElement titleElement =
-                        element.findElement(By.xpath(xpathProperties.ymCardPriceAddonXpath()));
+            return waiter.until("Цена карточки непустая", d -> {
+                WebElement titleElement = element.findElement(priceLocator);
 
                 String text = titleElement.getText();
 
@@ -306,12 +447,26 @@ public class YandexMarketPage {
                             .replaceAll("[\\s\\u00A0\\u2006\\u2007\\u2008\\u2009\\u200A]", "")
                             .replaceAll("[^\\d]", ""));
                 }
-            });
+            }, cardTextTimeoutMs(element));
         } catch (TimeoutException e) {
             System.out.println("[WAIT] Цена товара не стала непустой за отведённое время");
             return 0;
         }
 
     }
-}
 
+    /**
+     * Возвращает время ожидания текста карточки: для карточек, не прогрузившихся
+     * при ожидании пачки, — как для необязательного поля, для остальных — стандартный таймаут.
+     *
+     * @param card веб-элемент карточки товара
+     * @return время ожидания в миллисекундах
+     *
+     * @author Сергей Лужин
+     */
+    private long cardTextTimeoutMs(WebElement card) {
+        return unhydratedCards.contains(card)
+                ? testProperties.optionalFieldTimeoutMs()
+                : TimeUnit.SECONDS.toMillis(testProperties.defaultTimeout());
+    }
+}
@@ -0,0 +1,262 @@
+package steps;
+
+import helpers.DataProvider;
+import helpers.Driver;
+import helpers.LatencyStatistics;
+import helpers.SessionPool;
+import org.junit.jupiter.params.provider.Arguments;
+import org.openqa.selenium.WebDriver;
+import pages.YandexMarketPage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static helpers.Properties.testProperties;
+import static steps.YandexMarketSteps.*;
+
+/**
+ * Нагрузочный режим: повторяет путь пользователя из {@link YandexMarketSteps}
+ * (открытие сайта, выбор категории, фильтры, сбор карточек, поиск) несколькими
+ * виртуальными пользователями одновременно.
+ *
+ * Пользователи запускаются равномерно в течение {@code load.ramp.up.seconds},
+ * между шагами выдерживают паузу около {@code load.think.time.ms}, а общий темп
+ * начала сценариев ограничивается {@code load.target.rate.per.minute}.
+ * Сессии браузера без отрисовки берутся из {@link SessionPool}.
+ * По окончании выводятся пропускная способность и перцентили задержек каждого шага.
+ *
+ * Запуск: {@code mvn -Pload process-classes}.
+ *
+ * @author Сергей Лужин
+ */
+public class LoadRunner {
+
+    /**
+     * Статистика задержек шагов.
+     */
+    private final LatencyStatistics latencies = new LatencyStatistics();
+
+    /**
+     * Количество успешно завершённых сценариев.
+     */
+    private final AtomicInteger completed = new AtomicInteger();
+
+    /**
+     * Количество упавших сценариев по типам ошибок.
+     */
+    private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Время, раньше которого не может начаться следующий сценарий при ограничении темпа.
+     */
+    private final AtomicLong nextJourneyNanos = new AtomicLong();
+
+    /**
+     * Точка входа для профиля Maven {@code load}.
+     *
+     * @param args не используются
+     * @throws InterruptedException если ожидание пользователей прервано
+     *
+     * @author Сергей Лужин
+     */
+    public static void main(String[] args) throws InterruptedException {
+        new LoadRunner().run();
+    }
+
+    /**
+     * Запускает виртуальных пользователей, дожидается окончания нагрузки и печатает отчёт.
+     *
+     * @throws InterruptedException если ожидание пользователей прервано
+     *
+     * @author Сергей Лужин
+     */
+    public void run() throws InterruptedException {
+        int users = testProperties.loadUsers();
+        int poolSize = testProperties.loadSessionPoolSize() > 0 ? testProperties.loadSessionPoolSize() : users;
+        String url = testProperties.loadUrl().isEmpty() ? testProperties.yandexMarketUrl() : testProperties.loadUrl();
+        List<Object[]> journeys = DataProvider.providerYMtestCatalog().map(Arguments::get).collect(Collectors.toList());
+
+        System.out.println("[LOAD] Запускаем " + poolSize + " сессий браузера");
+        try (SessionPool pool = new SessionPool(poolSize)) {
+            long rampUpNanos = TimeUnit.SECONDS.toNanos(testProperties.loadRampUpSeconds());
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(testProperties.loadDurationSeconds());
+            nextJourneyNanos.set(start);
+
+            Thread[] threads = new Thread[users];
+            for (int user = 0; user < users; user++) {
+                long userStart = start + (users > 1 ? rampUpNanos * user / (users - 1) : 0);
+                int firstJourney = user;
+                threads[user] = new Thread(() -> virtualUser(pool, url, journeys, firstJourney, userStart, end), "load-user-" + user);
+                threads[user].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(report(elapsedSeconds));
+        }
+    }
+
+    /**
+     * Цикл одного виртуального пользователя: сценарии повторяются до окончания нагрузки.
+     *
+     * @param pool         пул сессий браузера
+     * @param url          адрес сайта
+     * @param journeys     наборы данных сценариев
+     * @param firstJourney номер набора данных для первого сценария
+     * @param startNanos   время начала работы пользователя
+     * @param endNanos     время окончания нагрузки
+     *
+     * @author Сергей Лужин
+     */
+    private void virtualUser(SessionPool pool, String url, List<Object[]> journeys, int firstJourney, long startNanos, long endNanos) {
+        sleepUntil(startNanos);
+        for (int journey = firstJourney; System.nanoTime() < endNanos; journey++) {
+            pace();
+            if (System.nanoTime() >= endNanos) {
+                return;
+            }
+
+            WebDriver session;
+            try {
+                session = pool.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            boolean broken = false;
+            Driver.bindSession(session);
+            try {
+                replay(url, journeys.get(journey % journeys.size()));
+                completed.incrementAndGet();
+            } catch (RuntimeException | AssertionError e) {
+                broken = true;
+                failures.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicInteger()).incrementAndGet();
+            } finally {
+                Driver.bindSession(null);
+                pool.release(session, broken);
+            }
+        }
+    }
+
+    /**
+     * Выполняет один сценарий пользователя, замеряя каждый шаг и сценарий целиком.
+     *
+     * @param url  адрес сайта
+     * @param data набор данных теста каталога
+     *
+     * @author Сергей Лужин
+     */
+    @SuppressWarnings("unchecked")
+    private void replay(String url, Object[] data) {
+        String category = (String) data[0];
+        String subcategory = (String) data[1];
+        int minPrice = (Integer) data[2];
+        int maxPrice = (Integer) data[3];
+        List<String> brands = (List<String>) data[4];
+        int indexOfCheckedElement = (Integer) data[5];
+
+        long journeyStart = System.nanoTime();
+
+        long stepStart = System.nanoTime();
+        openSite(url);
+        latencies.record("openSite", stepStart);
+        YandexMarketPage page = new YandexMarketPage();
+        think();
+
+        stepStart = System.nanoTime();
+        chooseCategory(category, subcategory, page);
+        latencies.record("chooseCategory", stepStart);
+        think();
+
+        stepStart = System.nanoTime();
+        setFilters(minPrice, maxPrice, brands, page);
+        latencies.record("setFilters", stepStart);
+        think();
+
+        stepStart = System.nanoTime();
+        getAllProductCards(page);
+        latencies.record("getAllProductCards", stepStart);
+        think();
+
+        String query = page.productsOnPage.get(Math.min(indexOfCheckedElement, page.productsOnPage.size() - 1)).getTitle();
+        stepStart = System.nanoTime();
+        goBySearchQuery(query, page);
+        latencies.record("goBySearchQuery", stepStart);
+
+        latencies.record("Сценарий целиком", journeyStart);
+    }
+
+    /**
+     * Ожидает очереди на начало сценария, если задан целевой темп.
+     *
+     * @author Сергей Лужин
+     */
+    private void pace() {
+        int ratePerMinute = testProperties.loadTargetRatePerMinute();
+        if (ratePerMinute <= 0) {
+            return;
+        }
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / ratePerMinute;
+        while (true) {
+            long planned = nextJourneyNanos.get();
+            long start = Math.max(planned, System.nanoTime());
+            if (nextJourneyNanos.compareAndSet(planned, start + intervalNanos)) {
+                sleepUntil(start);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Выдерживает паузу пользователя между шагами: от половины до полутора {@code load.think.time.ms}.
+     *
+     * @author Сергей Лужин
+     */
+    private static void think() {
+        long thinkMs = testProperties.loadThinkTimeMs();
+        if (thinkMs > 0) {
+            sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(thinkMs / 2 + ThreadLocalRandom.current().nextLong(thinkMs + 1)));
+        }
+    }
+
+    private static void sleepUntil(long nanos) {
+        long remaining = nanos - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Формирует итоговый отчёт нагрузки.
+     *
+     * @param elapsedSeconds длительность нагрузки в секундах
+     * @return отчёт
+     *
+     * @author Сергей Лужин
+     */
+    private String report(double elapsedSeconds) {
+        int failed = failures.values().stream().mapToInt(AtomicInteger::get).sum();
+        StringBuilder report = new StringBuilder(String.format(
+                "[LOAD] За %.0f с: успешных сценариев %d, упавших %d, пропускная способность %.2f сценариев/мин%n",
+                elapsedSeconds, completed.get(), failed, completed.get() * 60 / elapsedSeconds));
+        new TreeMap<>(failures).forEach((error, count) ->
+                report.append("  ").append(error).append(": ").append(count).append('\n'));
+        return report.append(latencies.report()).toString();
+    }
+}
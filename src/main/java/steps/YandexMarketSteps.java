@@ -1,17 +1,26 @@
 package steps;
 
 import entity.Product;
+import entity.ProductBatch;
+import entity.ProductSnapshot;
+import entity.ProductSnapshotDiff;
+import helpers.BrandMatcher;
+import helpers.Checkpoint;
 import helpers.Driver;
-import helpers.SoftChecker;
+import helpers.ProductIndex;
+import helpers.ProductSnapshotStore;
+import helpers.SoftAssertionCollector;
+import io.qameta.allure.Allure;
 import io.qameta.allure.Step;
 import org.junit.jupiter.api.Assertions;
 import org.openqa.selenium.WebElement;
 import pages.YandexMarketPage;
 
 
-import java.util.ArrayList;
 import java.util.List;
 
+import static helpers.Properties.testProperties;
+
 /**
  * Класс с шагами для работы с интерфейсом Яндекс Маркета.
  * Используется в тестах как набор переиспользуемых действий:
@@ -34,6 +43,24 @@ public class YandexMarketSteps {
         Driver.getWebDriver().get(url);
     }
 
+    /**
+     * Восстанавливает состояние браузера по контрольной точке сценария:
+     * открывает URL, сохранённый после последнего выполненного шага.
+     * Если сценарий начинается с начала, ничего не делает.
+     *
+     * @param checkpoint контрольная точка сценария
+     *
+     * @author Сергей Лужин
+     */
+    @Step("Восстанавливаем сценарий с контрольной точки")
+    public static void resumeFromCheckpoint(Checkpoint checkpoint) {
+        if (checkpoint.getUrl() == null) {
+            return;
+        }
+        System.out.println("[CHECKPOINT] Продолжаем после шага " + checkpoint.getCompletedStep() + " с " + checkpoint.getUrl());
+        Driver.getWebDriver().get(checkpoint.getUrl());
+    }
+
     /**
      * Переходит в каталог Яндекс Маркета, выбирает указанную категорию
      * и подкатегорию.
@@ -83,6 +110,60 @@ public class YandexMarketSteps {
         ymPage.scrollToBottomAndCollectAllProducts();
     }
 
+    /**
+     * Собирает карточки товаров в выдаче поиска, пока не встретится искомый товар.
+     * Прокрутка прекращается сразу после нахождения товара
+     * или по достижении предела глубины из test.properties.
+     *
+     * @param checkedProduct товар, который ищется в выдаче
+     * @param ymPage         объект страницы Яндекс Маркета с результатами поиска
+     * @return позиция найденного товара в выдаче или -1, если товар не найден
+     *
+     * @author Сергей Лужин
+     */
+    @Step("Собираем карточки товаров в выдаче поиска до нахождения товара {checkedProduct}")
+    public static int getProductCardsUntilFound(Product checkedProduct, YandexMarketPage ymPage) {
+        return ymPage.collectProductsUntil(
+                product -> ProductIndex.score(checkedProduct, product, testProperties.searchPriceTolerancePercent())
+                        >= testProperties.searchMatchMinScore(),
+                testProperties.searchHarvestMaxDepth()
+        );
+    }
+
+    /**
+     * Сохраняет собранные товары в локальное хранилище снимков
+     * и прикладывает к отчёту Allure разницу с предыдущим запуском
+     * для той же категории и тех же фильтров.
+     *
+     * @param category    название категории каталога
+     * @param subcategory название подкатегории каталога
+     * @param minPrice    минимальная цена фильтра
+     * @param maxPrice    максимальная цена фильтра
+     * @param brands      список брендов фильтра
+     * @param ymPage      объект страницы Яндекс Маркета с собранными товарами
+     *
+     * @author Сергей Лужин
+     */
+    @Step("Сохраняем снимок товаров и сравниваем его с предыдущим запуском")
+    public static void saveProductsSnapshot(String category, String subcategory, int minPrice, int maxPrice, List<String> brands, YandexMarketPage ymPage) {
+        ProductSnapshotStore store = ProductSnapshotStore.getDefault();
+        String key = ProductSnapshotStore.key(category, subcategory, minPrice, maxPrice, brands);
+
+        ProductSnapshot previous = store.findLatest(key);
+        store.append(key, System.currentTimeMillis(), ymPage.productsOnPage);
+
+        if (previous == null) {
+            System.out.println("[SNAPSHOT] Предыдущих снимков для " + key + " нет, сохранили первый");
+            return;
+        }
+
+        ProductSnapshotDiff diff = previous.diff(ymPage.productsOnPage);
+        System.out.println("[SNAPSHOT] Новых: " + diff.getAdded().size()
+                + ", пропавших: " + diff.getRemoved().size()
+                + ", с новой ценой: " + diff.getRepriced().size());
+        Allure.addAttachment("Изменения относительно предыдущего запуска", diff.toString());
+    }
+
     /**
      * Выполняет комплекс мягких проверок (soft assertions) по товарам:
      * – соответствие товара поисковому запросу
@@ -102,46 +183,46 @@ public class YandexMarketSteps {
      */
     @Step("Проводим софт проверки по окончании теста. Проверяем количество товаров, их соответствие фильтрам, а также, что сохраненный товар был найден через поиск")
     public static void runChecksSoftly(YandexMarketPage yandexMarketBeforeSearch, YandexMarketPage yandexMarketAfterSearch, int checkedAmount, int minPrice, int maxPrice, List<String> brands, int indexOfCheckedElement) {
-        List<String> wrongPriceProducts = new ArrayList<>();
-        List<String> wrongTitleProducts = new ArrayList<>();
-        for (Product product : yandexMarketBeforeSearch.productsOnPage) {
+        ProductBatch productsBeforeSearch = ProductBatch.of(yandexMarketBeforeSearch.productsOnPage);
+        BrandMatcher brandMatcher = BrandMatcher.of(brands);
 
-            if (product.getPrice() < minPrice || product.getPrice() > maxPrice) {
-                wrongPriceProducts.add(product.toString());
-            }
+        Product checkedProduct = yandexMarketBeforeSearch.productsOnPage.get(indexOfCheckedElement);
 
-            if (brands.stream().noneMatch(brand -> product.getTitle().toLowerCase().contains(brand.toLowerCase())) && !product.getTitle().isEmpty()) {
-                wrongTitleProducts.add(product.toString());
-            }
-        }
+        ProductIndex.Match checkedProductMatch = new ProductIndex(
+                yandexMarketAfterSearch.productsOnPage,
+                testProperties.searchPriceTolerancePercent()
+        ).findBest(checkedProduct);
 
-        Product checkedProduct = yandexMarketBeforeSearch.productsOnPage.get(indexOfCheckedElement);
+        boolean productIsFoundOnPage = checkedProductMatch != null
+                && checkedProductMatch.getScore() >= testProperties.searchMatchMinScore();
 
-        boolean productIsFoundOnPage = yandexMarketAfterSearch.productsOnPage.stream()
-                .anyMatch(p -> p.equals(checkedProduct));
+        int[] wrongPriceRows = productsBeforeSearch.rowsWithPriceOutside(minPrice, maxPrice);
+        int[] wrongTitleRows = productsBeforeSearch.rowsWithoutBrand(brandMatcher);
 
-        Assertions.assertAll(
-                () -> SoftChecker.check(
-                        yandexMarketBeforeSearch.productsOnPage.size() > checkedAmount,
+        new SoftAssertionCollector()
+                .check(
                         "Проверяем, что после заданных фильтров было найдено как минимум " + checkedAmount + " товаров",
-                        "Было найдено меньше товаров, чем " + checkedAmount + ". Было найдено только " + yandexMarketBeforeSearch.productsOnPage.size() + " товаров"
-                ),
-                () -> SoftChecker.check(
-                        productIsFoundOnPage,
+                        yandexMarketBeforeSearch.productsOnPage.size() > checkedAmount,
+                        () -> "Было найдено меньше товаров, чем " + checkedAmount + ". Было найдено только " + yandexMarketBeforeSearch.productsOnPage.size() + " товаров"
+                )
+                .check(
                         "Проверяем: что " + checkedProduct.getTitle() + " был найден на странице после поиска",
-                        "Товар " + checkedProduct.getTitle() + " не был найден на странице после поиска"
-                ),
-                () -> SoftChecker.check(
-                        wrongPriceProducts.isEmpty(),
+                        productIsFoundOnPage,
+                        () -> "Товар " + checkedProduct.getTitle() + " не был найден на странице после поиска. Наиболее похожий товар: " + checkedProductMatch
+                )
+                .checkNoViolations(
                         "Проверяем, что товары на странице, после ввода фильтров соответствовали ценовому диапазону " + minPrice + " - " + maxPrice + " рублей",
-                        "Были найдены товары, которые не соответсвуют ценовому дипазону от " + minPrice + " до " + maxPrice + " рублей: " + wrongPriceProducts
-                ),
-                () -> SoftChecker.check(
-                        wrongTitleProducts.isEmpty(),
+                        wrongPriceRows,
+                        productsBeforeSearch::toProduct,
+                        () -> "Были найдены товары, которые не соответсвуют ценовому дипазону от " + minPrice + " до " + maxPrice + " рублей: "
+                )
+                .checkNoViolations(
                         "Проверяем, что товары на странице, после ввода фильтров соответствовали брендам " + brands,
-                        "Были найдены товары, которые не соответствуют брендам " + brands + ": " + wrongTitleProducts
+                        wrongTitleRows,
+                        productsBeforeSearch::toProduct,
+                        () -> "Были найдены товары, которые не соответствуют брендам " + brands + ": "
                 )
-        );
+                .verify();
     }
 
     /**
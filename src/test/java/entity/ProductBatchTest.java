@@ -0,0 +1,74 @@
+package entity;
+
+import helpers.BrandMatcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверки фильтров колоночного списка товаров {@link ProductBatch}.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductBatchTest {
+
+    private static ProductBatch batch() {
+        return ProductBatch.of(Arrays.asList(
+                new Product("Ноутбук Lenovo IdeaPad", 50000),
+                new Product("Ноутбук Acer Aspire", 9000),
+                new Product("Ноутбук HP Pavilion", 70000),
+                new Product("", 40000),
+                new Product("Ноутбук Acer Aspire", 120000),
+                new Product("Ноутбук LENOVO Legion", 100000)
+        ));
+    }
+
+    @Test
+    @DisplayName("Строки с ценой вне диапазона находятся, границы диапазона допустимы")
+    public void findsRowsWithPriceOutside() {
+        ProductBatch batch = batch();
+
+        assertArrayEquals(new int[]{1, 4}, batch.rowsWithPriceOutside(10000, 100000));
+        assertArrayEquals(new int[]{}, batch.rowsWithPriceOutside(9000, 120000));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, batch.rowsWithPriceOutside(1, 0));
+    }
+
+    @Test
+    @DisplayName("Строки без брендов находятся для каждой строки с повторяющимся названием, пустые названия пропускаются")
+    public void findsRowsWithoutBrand() {
+        ProductBatch batch = batch();
+
+        assertArrayEquals(new int[]{1, 2, 4}, batch.rowsWithoutBrand(BrandMatcher.of(Arrays.asList("Lenovo"))));
+        assertArrayEquals(new int[]{2}, batch.rowsWithoutBrand(BrandMatcher.of(Arrays.asList("Lenovo", "Acer"))));
+    }
+
+    @Test
+    @DisplayName("Повторяющиеся названия хранятся в словаре один раз и восстанавливаются по строкам")
+    public void sharesDictionaryBetweenRows() {
+        ProductBatch batch = batch();
+        batch.add("Ноутбук HP Pavilion", 65000);
+
+        assertEquals(7, batch.size());
+        assertEquals("Ноутбук Acer Aspire", batch.getTitle(4));
+        assertEquals(new Product("Ноутбук HP Pavilion", 65000), batch.toProduct(6));
+        assertEquals("", batch.getTitle(3));
+    }
+
+    @Test
+    @DisplayName("Батч растёт за пределы начальной ёмкости строк и словаря")
+    public void growsBeyondInitialCapacity() {
+        ProductBatch batch = new ProductBatch();
+        for (int i = 0; i < 300; i++) {
+            batch.add("Товар " + i % 150, i);
+        }
+
+        assertEquals(300, batch.size());
+        assertEquals("Товар 149", batch.getTitle(299));
+        assertEquals("Товар 0", batch.getTitle(150));
+        assertEquals(299, batch.getPrice(299));
+    }
+}
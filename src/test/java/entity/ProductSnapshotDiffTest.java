@@ -0,0 +1,57 @@
+package entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки разницы между снимками товаров {@link ProductSnapshotDiff}.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductSnapshotDiffTest {
+
+    @Test
+    @DisplayName("Новые, пропавшие и переоценённые товары определяются по названию")
+    public void findsAddedRemovedAndRepriced() {
+        ProductSnapshotDiff diff = ProductSnapshotDiff.between(
+                Arrays.asList(new Product("Ноутбук A", 100), new Product("Ноутбук B", 200), new Product("Ноутбук C", 300)),
+                Arrays.asList(new Product("Ноутбук B", 250), new Product("Ноутбук C", 300), new Product("Ноутбук D", 400))
+        );
+
+        assertEquals(Collections.singletonList(new Product("Ноутбук D", 400)), diff.getAdded());
+        assertEquals(Collections.singletonList(new Product("Ноутбук A", 100)), diff.getRemoved());
+        assertEquals(1, diff.getRepriced().size());
+        ProductSnapshotDiff.Repricing repricing = diff.getRepriced().get(0);
+        assertEquals("Ноутбук B", repricing.getTitle());
+        assertEquals(200, repricing.getOldPrice());
+        assertEquals(250, repricing.getNewPrice());
+    }
+
+    @Test
+    @DisplayName("Одинаковые списки в другом порядке не дают разницы")
+    public void sameProductsInOtherOrderAreEqual() {
+        ProductSnapshotDiff diff = ProductSnapshotDiff.between(
+                Arrays.asList(new Product("Ноутбук A", 100), new Product("Ноутбук B", 200)),
+                Arrays.asList(new Product("Ноутбук B", 200), new Product("Ноутбук A", 100))
+        );
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Повтор товара в выдаче сравнивается по первому вхождению")
+    public void usesFirstOccurrenceOfDuplicateTitle() {
+        ProductSnapshotDiff diff = ProductSnapshotDiff.between(
+                Collections.singletonList(new Product("Ноутбук A", 100)),
+                Arrays.asList(new Product("Ноутбук A", 100), new Product("Ноутбук A", 150))
+        );
+
+        assertTrue(diff.isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки поиска брендов в названиях товаров {@link BrandMatcher}.
+ *
+ * @author Сергей Лужин
+ */
+public class BrandMatcherTest {
+
+    @Test
+    @DisplayName("Бренд находится без учёта регистра латиницы и возвращается в исходном написании")
+    public void findsLatinBrandIgnoringCase() {
+        BrandMatcher matcher = BrandMatcher.of(Arrays.asList("Lenovo", "HP"));
+
+        assertEquals("Lenovo", matcher.findBrand("Ноутбук LENOVO IdeaPad 3"));
+        assertEquals("HP", matcher.findBrand("ноутбук hp 250 g8"));
+    }
+
+    @Test
+    @DisplayName("Бренд находится без учёта регистра кириллицы, включая ё")
+    public void findsCyrillicBrandIgnoringCase() {
+        BrandMatcher matcher = BrandMatcher.of(Collections.singletonList("Ёлка"));
+
+        assertTrue(matcher.matches("Искусственная ЁЛКА 150 см"));
+        assertTrue(matcher.matches("искусственная ёлка"));
+    }
+
+    @Test
+    @DisplayName("Перекрывающиеся бренды находятся через суффиксные ссылки")
+    public void findsOverlappingBrandsThroughFailLinks() {
+        BrandMatcher matcher = BrandMatcher.of(Arrays.asList("he", "she", "hers"));
+
+        assertEquals("she", matcher.findBrand("ushers"));
+        assertEquals("he", matcher.findBrand("xhex"));
+        assertEquals("hers", BrandMatcher.of(Collections.singletonList("hers")).findBrand("hhers"));
+    }
+
+    @Test
+    @DisplayName("Название без брендов не даёт совпадений")
+    public void returnsNullWithoutBrand() {
+        BrandMatcher matcher = BrandMatcher.of(Arrays.asList("Dell", "Asus"));
+
+        assertNull(matcher.findBrand("Ноутбук Acer Aspire"));
+        assertFalse(matcher.matches(""));
+        assertFalse(BrandMatcher.of(Collections.emptyList()).matches("Ноутбук Dell"));
+    }
+
+    @Test
+    @DisplayName("Пустой бренд, как и contains(\"\"), встречается в любом названии")
+    public void emptyBrandMatchesAnyTitle() {
+        BrandMatcher matcher = BrandMatcher.of(Arrays.asList("Dell", ""));
+
+        assertEquals("", matcher.findBrand("Ноутбук Acer Aspire"));
+        assertTrue(matcher.matches(""));
+    }
+
+    @Test
+    @DisplayName("Результат совпадает с поиском через contains для многих брендов с общими префиксами")
+    public void agreesWithContains() {
+        List<String> brands = Arrays.asList("Apple", "Appl", "Acer", "Asus", "ASRock", "Samsung", "Sam", "Xiaomi", "Хуавей", "Хонор");
+        BrandMatcher matcher = BrandMatcher.of(brands);
+        List<String> titles = Arrays.asList("Смартфон SAMSUNG Galaxy", "Ноутбук asrock", "Смартфон Honor", "Смартфон ХОНОР 90",
+                "Планшет Appl", "Ноутбук Acer", "Телефон Xiaomi Redmi", "Наушники Sony", "aapplle", "Samsun");
+
+        for (String title : titles) {
+            boolean expected = brands.stream().anyMatch(brand -> title.toLowerCase().contains(brand.toLowerCase()));
+            assertEquals(expected, matcher.matches(title), title);
+        }
+    }
+}
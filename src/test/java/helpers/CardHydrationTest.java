@@ -0,0 +1,107 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Проверки учёта пачек и непрогрузившихся карточек {@link CardHydration}.
+ * Браузер заменён исполнителем скриптов, который возвращает заранее заданные результаты проверки.
+ *
+ * @author Сергей Лужин
+ */
+public class CardHydrationTest {
+
+    /**
+     * Исполнитель скриптов, запоминающий переданные карточки и отдающий результаты по очереди;
+     * последний результат повторяется.
+     */
+    private static class ScriptedExecutor implements JavascriptExecutor {
+        private final Deque<List<Long>> results;
+        private final List<List<?>> passedCards = new ArrayList<>();
+
+        @SafeVarargs
+        ScriptedExecutor(List<Long>... results) {
+            this.results = new ArrayDeque<>(Arrays.asList(results));
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            passedCards.add(new ArrayList<>((List<?>) args[0]));
+            return results.size() > 1 ? results.poll() : results.peek();
+        }
+
+        @Override
+        public Object executeAsyncScript(String script, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static List<WebElement> cards(int count) {
+        List<WebElement> cards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = "card" + i;
+            cards.add((WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(), new Class<?>[]{WebElement.class},
+                    (proxy, method, args) -> method.getName().equals("toString") ? name : null));
+        }
+        return cards;
+    }
+
+    @Test
+    @DisplayName("В браузер передаются только карточки начиная с первой непроверенной")
+    public void passesOnlyUncheckedCards() {
+        List<WebElement> cards = cards(6);
+        ScriptedExecutor js = new ScriptedExecutor(Collections.singletonList(5L));
+
+        CardHydration.awaitViewportHydration(js, new Waiter(null), cards, 4, 1000);
+
+        assertEquals(1, js.passedCards.size());
+        assertEquals(2, js.passedCards.get(0).size());
+        assertSame(cards.get(4), js.passedCards.get(0).get(0));
+        assertSame(cards.get(5), js.passedCards.get(0).get(1));
+    }
+
+    @Test
+    @DisplayName("Пачка, прогрузившаяся со второго опроса, не содержит непрогрузившихся карточек")
+    public void batchHydratedOnRetry() {
+        ScriptedExecutor js = new ScriptedExecutor(Arrays.asList(7L, 3L, 6L), Collections.singletonList(7L));
+
+        CardHydration.Batch batch = CardHydration.awaitViewportHydration(js, new Waiter(null), cards(10), 2, 1000);
+
+        assertEquals(7, batch.getLastIndex());
+        assertEquals(Collections.emptyList(), batch.getUnhydrated());
+        assertEquals(2, js.passedCards.size());
+    }
+
+    @Test
+    @DisplayName("После таймаута непрогрузившимися считаются карточки из последней проверки")
+    public void unhydratedCardsAfterTimeout() {
+        ScriptedExecutor js = new ScriptedExecutor(Arrays.asList(7L, 3L, 6L), Arrays.asList(7L, 6L));
+
+        CardHydration.Batch batch = CardHydration.awaitViewportHydration(js, new Waiter(null), cards(10), 2, 200);
+
+        assertEquals(7, batch.getLastIndex());
+        assertEquals(Collections.singletonList(6), batch.getUnhydrated());
+    }
+
+    @Test
+    @DisplayName("Без карточек в видимой области последней проверенной считается карточка перед пачкой")
+    public void emptyViewport() {
+        CardHydration.Batch batch = CardHydration.toBatch(Collections.singletonList(4L));
+
+        assertEquals(4, batch.getLastIndex());
+        assertEquals(Collections.emptyList(), batch.getUnhydrated());
+    }
+}
@@ -0,0 +1,96 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки сокращения наборов данных {@link CombinatorialReduction}.
+ *
+ * @author Сергей Лужин
+ */
+public class CombinatorialReductionTest {
+
+    /**
+     * Полный перебор четырёх факторов по три значения: 81 строка.
+     */
+    private static List<Object[]> fullGrid() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int a = 0; a < 3; a++) {
+            for (int b = 0; b < 3; b++) {
+                for (int c = 0; c < 3; c++) {
+                    for (int d = 0; d < 3; d++) {
+                        rows.add(new Object[]{a, b, c, d});
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static final int[][] SINGLE_COLUMN_FACTORS = {{0}, {1}, {2}, {3}};
+
+    @Test
+    @DisplayName("Попарное сокращение покрывает все пары значений любых двух факторов")
+    public void coversAllPairs() {
+        List<Object[]> reduced = CombinatorialReduction.reduce(fullGrid(), SINGLE_COLUMN_FACTORS, 2);
+
+        for (int f = 0; f < 4; f++) {
+            for (int g = f + 1; g < 4; g++) {
+                Set<List<Object>> pairs = new HashSet<>();
+                for (Object[] row : reduced) {
+                    pairs.add(Arrays.asList(row[f], row[g]));
+                }
+                assertEquals(9, pairs.size(), "Факторы " + f + " и " + g);
+            }
+        }
+        // Нижняя граница — 9 строк, жадный выбор должен остаться рядом с ней
+        assertTrue(reduced.size() >= 9 && reduced.size() <= 15, "Строк: " + reduced.size());
+    }
+
+    @Test
+    @DisplayName("Колонки одного фактора не разделяются и не дают несуществующих сочетаний")
+    public void keepsMultiColumnFactorsTogether() {
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{"Ноутбуки", "Игровые", 1},
+                new Object[]{"Ноутбуки", "Ультрабуки", 2},
+                new Object[]{"Телефоны", "Смартфоны", 1},
+                new Object[]{"Телефоны", "Смартфоны", 2}
+        );
+
+        List<Object[]> reduced = CombinatorialReduction.reduce(rows, new int[][]{{0, 1}, {2}}, 2);
+
+        assertEquals(4, reduced.size());
+    }
+
+    @Test
+    @DisplayName("Оставленные строки идут в исходном порядке")
+    public void preservesOriginalOrder() {
+        List<Object[]> grid = fullGrid();
+        List<Object[]> reduced = CombinatorialReduction.reduce(grid, SINGLE_COLUMN_FACTORS, 2);
+
+        int previous = -1;
+        for (Object[] row : reduced) {
+            int index = grid.indexOf(row);
+            assertTrue(index > previous);
+            previous = index;
+        }
+    }
+
+    @Test
+    @DisplayName("Сила 0 отключает сокращение")
+    public void returnsRowsUnchangedForZeroStrength() {
+        List<Object[]> grid = fullGrid();
+
+        assertSame(grid, CombinatorialReduction.reduce(grid, SINGLE_COLUMN_FACTORS, 0));
+    }
+}
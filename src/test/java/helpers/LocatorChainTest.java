@@ -0,0 +1,110 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки разбора и порядка опроса цепочек локаторов {@link LocatorChain}.
+ *
+ * @author Сергей Лужин
+ */
+public class LocatorChainTest {
+
+    @Test
+    @DisplayName("Варианты разделяются по || с обрезкой пробелов, пустые варианты отбрасываются")
+    public void parsesCandidates() {
+        LocatorChain chain = new LocatorChain("test.locator", " //input[@id='a'] ||//input[@type='text' or @type='search']||  || ");
+
+        assertEquals(Arrays.asList("//input[@id='a']", "//input[@type='text' or @type='search']"), chain.getXpaths());
+    }
+
+    @Test
+    @DisplayName("XPath с одиночной чертой (объединение) не разбивается на варианты")
+    public void keepsXpathUnion() {
+        LocatorChain chain = new LocatorChain("test.locator", "//a | //b");
+
+        assertEquals(Collections.singletonList("//a | //b"), chain.getXpaths());
+    }
+
+    @Test
+    @DisplayName("Метка подставляется во все варианты")
+    public void substitutesPlaceholderInEveryCandidate() {
+        LocatorChain chain = new LocatorChain("test.locator", "//a[text()='*brand*'] || //label[.='*brand*']").with("*brand*", "Lenovo");
+
+        assertEquals(Arrays.asList("//a[text()='Lenovo']", "//label[.='Lenovo']"), chain.getXpaths());
+    }
+
+    @Test
+    @DisplayName("Без статистики варианты опрашиваются в порядке из xpath.properties")
+    public void keepsDeclaredOrderWithoutStatistics() {
+        assertEquals(Arrays.asList(0, 1, 2), LocatorChain.order(Arrays.asList("a", "b", "c"), new HashMap<>()));
+    }
+
+    @Test
+    @DisplayName("Первым опрашивается вариант с большей долей успехов с поправкой Лапласа")
+    public void ordersBySmoothedSuccessRate() {
+        List<String> templates = Arrays.asList("a", "b", "c");
+        Map<String, long[]> statistics = new HashMap<>();
+        statistics.put("a", new long[]{0, 3});   // 1/5
+        statistics.put("b", new long[]{5, 0});   // 6/7
+        // У "c" статистики нет: 1/2
+
+        assertEquals(Arrays.asList(1, 2, 0), LocatorChain.order(templates, statistics));
+    }
+
+    @Test
+    @DisplayName("При равной доле успехов сохраняется порядок из xpath.properties")
+    public void keepsDeclaredOrderOnTie() {
+        Map<String, long[]> statistics = new HashMap<>();
+        statistics.put("b", new long[]{1, 1});
+
+        assertEquals(Arrays.asList(0, 1), LocatorChain.order(Arrays.asList("a", "b"), statistics));
+    }
+
+    @Test
+    @DisplayName("Испорченные записи статистики не разбираются")
+    public void rejectsMalformedCounts() {
+        assertArrayEquals(new long[]{3, 4}, LocatorChain.parseCounts(" 3, 4"));
+        assertNull(LocatorChain.parseCounts("3"));
+        assertNull(LocatorChain.parseCounts("3,x"));
+        assertNull(LocatorChain.parseCounts("3,4,5"));
+        assertNull(LocatorChain.parseCounts("-1,4"));
+    }
+
+    @Test
+    @DisplayName("Ключ цепочки текущий только внутри её действия, вложенная цепочка восстанавливает внешний ключ")
+    public void scopesCurrentKey() {
+        LocatorChain outer = new LocatorChain("ym.catalog.button", "//a");
+        LocatorChain inner = new LocatorChain("ym.search.button", "//b").with("*x*", "y");
+
+        assertNull(LocatorChain.currentKey());
+        outer.scoped(() -> {
+            assertEquals("ym.catalog.button", LocatorChain.currentKey());
+            assertEquals("ym.search.button", inner.scoped(LocatorChain::currentKey));
+            assertEquals("ym.catalog.button", LocatorChain.currentKey());
+            return null;
+        });
+        assertNull(LocatorChain.currentKey());
+    }
+
+    @Test
+    @DisplayName("Локатор цепочки несёт её ключ xpath.properties")
+    public void byCarriesKey() {
+        By by = new LocatorChain("ym.card.on.all.pages", "//a || //b").asBy();
+
+        assertTrue(by instanceof LocatorChain.ChainBy);
+        assertEquals("ym.card.on.all.pages", ((LocatorChain.ChainBy) by).getKey());
+    }
+}
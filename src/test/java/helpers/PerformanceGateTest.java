@@ -0,0 +1,129 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки статистики {@link PerformanceGate} на заранее посчитанных значениях.
+ *
+ * @author Сергей Лужин
+ */
+public class PerformanceGateTest {
+
+    private static double[] range(int from, int to) {
+        double[] values = new double[to - from + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = from + i;
+        }
+        return values;
+    }
+
+    @Test
+    @DisplayName("Квантили нормального распределения совпадают с табличными")
+    public void inverseNormalMatchesTable() {
+        assertEquals(0, PerformanceGate.inverseNormal(0.5), 1e-6);
+        assertEquals(1.959964, PerformanceGate.inverseNormal(0.975), 1e-5);
+        assertEquals(1.644854, PerformanceGate.inverseNormal(0.95), 1e-5);
+        assertEquals(-2.326348, PerformanceGate.inverseNormal(0.01), 1e-5);
+    }
+
+    @Test
+    @DisplayName("p-value Манна–Уитни совпадает с нормальным приближением, посчитанным вручную")
+    public void mannWhitneyMatchesKnownValues() {
+        // U = 9, среднее 4.5, дисперсия 5.25: z = (9 - 4.5 - 0.5) / sqrt(5.25)
+        assertEquals(0.040428, PerformanceGate.mannWhitneyGreater(new double[]{4, 5, 6}, new double[]{1, 2, 3}), 1e-5);
+        assertEquals(0.985452, PerformanceGate.mannWhitneyGreater(new double[]{1, 2, 3}, new double[]{4, 5, 6}), 1e-5);
+        assertEquals(0.002538, PerformanceGate.mannWhitneyGreater(range(6, 15), range(1, 10)), 1e-5);
+    }
+
+    @Test
+    @DisplayName("Одинаковые выборки не дают значимого различия")
+    public void identicalSamplesAreNotSignificant() {
+        assertEquals(1, PerformanceGate.mannWhitneyGreater(new double[]{7, 7, 7}, new double[]{7, 7, 7}));
+    }
+
+    @Test
+    @DisplayName("Сдвиг Ходжеса–Лемана и его доверительный интервал совпадают с посчитанными вручную")
+    public void hodgesLehmannShiftAndInterval() {
+        // Разности 5 + (i - j) для i, j от 1 до 10; нижняя граница — 25-я по порядку разность
+        PerformanceGate.StepComparison comparison =
+                PerformanceGate.compare("шаг", range(1, 10), range(6, 15), 10, 0.05);
+
+        assertEquals(5.5, comparison.baselineMedian);
+        assertEquals(10.5, comparison.currentMedian);
+        assertEquals(5, comparison.shift);
+        assertEquals(2, comparison.shiftLow);
+        assertEquals(8, comparison.shiftHigh);
+        assertEquals(0.002538, comparison.pValue, 1e-5);
+        assertTrue(comparison.regression);
+    }
+
+    @Test
+    @DisplayName("Значимый сдвиг меньше порога не считается регрессией")
+    public void shiftBelowThresholdIsNotRegression() {
+        PerformanceGate.StepComparison comparison =
+                PerformanceGate.compare("шаг", range(1, 10), range(6, 15), 100, 0.05);
+
+        assertFalse(comparison.regression);
+    }
+
+    @Test
+    @DisplayName("Из текущих замеров берутся только последние запуски")
+    public void readKeepsOnlyLastRuns(@TempDir Path dir) throws IOException {
+        Path timings = dir.resolve("timings.jsonl");
+        Files.write(timings, Arrays.asList(
+                "{\"run\":1,\"step\":\"поиск\",\"ms\":100}",
+                "{\"run\":3,\"step\":\"поиск\",\"ms\":300}",
+                "",
+                "{\"run\":2,\"step\":\"поиск\",\"ms\":200}",
+                "{\"run\":3,\"step\":\"фильтр\",\"ms\":30}"
+        ), StandardCharsets.UTF_8);
+
+        Map<String, List<Long>> lastTwo = PerformanceGate.read(timings, 2);
+
+        assertEquals(Arrays.asList(300L, 200L), lastTwo.get("поиск"));
+        assertEquals(Arrays.asList(30L), lastTwo.get("фильтр"));
+        assertEquals(3, PerformanceGate.read(timings, Integer.MAX_VALUE).get("поиск").size());
+        assertTrue(PerformanceGate.read(dir.resolve("missing.jsonl"), 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Регрессия последних запусков не маскируется старыми быстрыми замерами")
+    public void recentRegressionIsNotMaskedByOldRuns(@TempDir Path dir) throws IOException {
+        Path baseline = dir.resolve("baseline.jsonl");
+        Path timings = dir.resolve("timings.jsonl");
+        StringBuilder base = new StringBuilder();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            base.append("{\"run\":1,\"step\":\"поиск\",\"ms\":").append(100 + i).append("}\n");
+            // Двадцать старых быстрых запусков и пять последних медленных
+            for (int run = 0; run < 20; run++) {
+                current.append("{\"run\":").append(run).append(",\"step\":\"поиск\",\"ms\":").append(100 + i).append("}\n");
+            }
+            for (int run = 20; run < 25; run++) {
+                current.append("{\"run\":").append(run).append(",\"step\":\"поиск\",\"ms\":").append(150 + i).append("}\n");
+            }
+        }
+        Files.write(baseline, base.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(timings, current.toString().getBytes(StandardCharsets.UTF_8));
+
+        PerformanceGate gate = new PerformanceGate(timings, baseline);
+
+        gate.check(10, 0.05, 5, 25);
+        assertThrows(IllegalStateException.class, () -> gate.check(10, 0.05, 5, 5));
+    }
+}
@@ -0,0 +1,85 @@
+package helpers;
+
+import entity.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки нечёткого поиска товаров {@link ProductIndex}.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductIndexTest {
+
+    @Test
+    @DisplayName("Нормализация убирает знаки препинания, лишние пробелы и регистр")
+    public void normalizesTitle() {
+        assertEquals("ноутбук lenovo ideapad 3", ProductIndex.normalize("  Ноутбук  LENOVO, IdeaPad-3! "));
+    }
+
+    @Test
+    @DisplayName("Одинаковые названия с ценой в пределах отклонения дают сходство 1")
+    public void scoresIdenticalTitlesAsOne() {
+        Product expected = new Product("Ноутбук Lenovo IdeaPad 3", 50000);
+
+        assertEquals(1.0, ProductIndex.score(expected, new Product("ноутбук lenovo, ideapad 3", 52000), 5), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Цена за пределами отклонения обнуляет сходство")
+    public void scoresPriceOutsideToleranceAsZero() {
+        Product expected = new Product("Ноутбук Lenovo IdeaPad 3", 50000);
+
+        assertEquals(0.0, ProductIndex.score(expected, new Product("Ноутбук Lenovo IdeaPad 3", 52501), 5), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Похожее название оценивается между 0 и 1 коэффициентом Дайса по триграммам")
+    public void scoresSimilarTitleByDice() {
+        Product expected = new Product("abc", 100);
+
+        // Триграммы: #ab, abc, bc# и #ab, abd, bd# — общая одна из трёх в каждом
+        assertEquals(2.0 / 6, ProductIndex.score(expected, new Product("abd", 100), 0), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Лучшим совпадением считается самое похожее название среди товаров с подходящей ценой")
+    public void findsBestMatchWithinPriceTolerance() {
+        ProductIndex index = new ProductIndex(Arrays.asList(
+                new Product("Ноутбук Lenovo IdeaPad 3 15IGL05", 40000),
+                new Product("Ноутбук Lenovo IdeaPad 3 15ITL6", 100000),
+                new Product("Ноутбук Lenovo IdeaPad 3 15ITL6", 50000),
+                new Product("Мышь Logitech", 50000)
+        ), 5);
+
+        ProductIndex.Match match = index.findBest(new Product("Lenovo IdeaPad 3 15ITL6", 50500));
+
+        assertEquals(2, match.getPosition());
+        assertTrue(match.getScore() > 0.8 && match.getScore() < 1.0);
+    }
+
+    @Test
+    @DisplayName("При равном сходстве выбирается товар, стоящий выше в выдаче")
+    public void prefersEarlierPositionOnTie() {
+        ProductIndex index = new ProductIndex(Arrays.asList(
+                new Product("Ноутбук Acer", 100),
+                new Product("Ноутбук Acer", 100)
+        ), 0);
+
+        assertEquals(0, index.findBest(new Product("Ноутбук Acer", 100)).getPosition());
+    }
+
+    @Test
+    @DisplayName("Без общих триграмм совпадения нет")
+    public void returnsNullWithoutSharedTrigrams() {
+        ProductIndex index = new ProductIndex(Arrays.asList(new Product("Мышь", 100)), 5);
+
+        assertNull(index.findBest(new Product("Ноутбук", 100)));
+    }
+}
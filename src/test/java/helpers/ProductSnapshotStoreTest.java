@@ -0,0 +1,83 @@
+package helpers;
+
+import entity.Product;
+import entity.ProductSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Проверки хранилища снимков товаров {@link ProductSnapshotStore}.
+ *
+ * @author Сергей Лужин
+ */
+public class ProductSnapshotStoreTest {
+
+    private static final String KEY = ProductSnapshotStore.key("Электроника", "Ноутбуки", 10000, 60000,
+            Collections.singletonList("Lenovo"));
+
+    private static List<Product> products(int price) {
+        return Arrays.asList(new Product("Ноутбук Lenovo IdeaPad 3", price), new Product("Ноутбук Lenovo V15", price + 1));
+    }
+
+    @Test
+    @DisplayName("Последний снимок и история ключа читаются без чужих записей")
+    public void readsLatestAndHistoryOfKey(@TempDir Path dir) {
+        ProductSnapshotStore store = new ProductSnapshotStore(dir.resolve("products.snap"));
+        store.append(KEY, 1, products(100));
+        store.append("другой ключ", 2, products(200));
+        store.append(KEY, 3, products(300));
+
+        ProductSnapshot latest = store.findLatest(KEY);
+
+        assertEquals(3, latest.getTimestamp());
+        assertEquals(products(300), latest.getProducts());
+        assertEquals(2, store.history(KEY).size());
+        assertNull(store.findLatest("нет такого ключа"));
+    }
+
+    @Test
+    @DisplayName("Недописанная запись не скрывает снимки, дописанные после неё")
+    public void readsPastTornAppend(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("products.snap");
+        ProductSnapshotStore store = new ProductSnapshotStore(path);
+        store.append(KEY, 1, products(100));
+        long firstSize = Files.size(path);
+        store.append(KEY, 2, products(200));
+
+        // Обрезаем вторую запись посередине, как при падении форка во время append
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, (int) firstSize + 20));
+        store.append(KEY, 3, products(300));
+
+        assertEquals(3, store.findLatest(KEY).getTimestamp());
+        assertEquals(2, store.history(KEY).size());
+    }
+
+    @Test
+    @DisplayName("Испорченные байты внутри записи пропускаются до следующей записи")
+    public void skipsCorruptedRecord(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("products.snap");
+        ProductSnapshotStore store = new ProductSnapshotStore(path);
+        store.append(KEY, 1, products(100));
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+        store.append(KEY, 2, products(200));
+
+        List<ProductSnapshot> history = store.history(KEY);
+
+        assertEquals(2, history.size());
+        assertEquals(1, history.get(0).getTimestamp());
+        assertEquals(2, history.get(1).getTimestamp());
+    }
+}
@@ -0,0 +1,74 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки распределения наборов по шардам {@link TestSharding}.
+ *
+ * @author Сергей Лужин
+ */
+public class TestShardingTest {
+
+    private static List<Arguments> rows(int count) {
+        List<Arguments> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(Arguments.of("Категория " + i, i * 1000, i % 3));
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Шарды 0..N-1 вместе содержат каждый набор ровно один раз, даже с разной историей")
+    public void shardsCoverEveryRowExactlyOnce(@TempDir Path dir) {
+        List<Arguments> rows = rows(50);
+        DurationHistory empty = new DurationHistory(dir.resolve("empty.properties"));
+        DurationHistory recorded = new DurationHistory(dir.resolve("recorded.properties"));
+        for (int i = 0; i < rows.size(); i += 2) {
+            recorded.record(DurationHistory.caseId(rows.get(i).get()), 100L * i);
+        }
+
+        for (int total = 1; total <= 5; total++) {
+            Map<String, Integer> runs = new HashMap<>();
+            for (int shard = 0; shard < total; shard++) {
+                // Чётные шарды видят историю, нечётные — нет, как при запуске на разных агентах
+                DurationHistory history = shard % 2 == 0 ? recorded : empty;
+                for (Arguments row : TestSharding.shard(rows, history, shard, total)) {
+                    runs.merge(DurationHistory.caseId(row.get()), 1, Integer::sum);
+                }
+            }
+            assertEquals(rows.size(), runs.size(), "Шардов: " + total);
+            for (Map.Entry<String, Integer> run : runs.entrySet()) {
+                assertEquals(1, run.getValue(), run.getKey() + " при шардах: " + total);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Внутри шарда наборы идут от самого долгого к самому короткому")
+    public void ordersShardByHistory(@TempDir Path dir) {
+        List<Arguments> rows = rows(10);
+        DurationHistory history = new DurationHistory(dir.resolve("history.properties"));
+        for (int i = 0; i < rows.size(); i++) {
+            history.record(DurationHistory.caseId(rows.get(i).get()), 10L * i);
+        }
+
+        List<Arguments> shard = TestSharding.shard(rows, history, 0, 1);
+
+        for (int i = 1; i < shard.size(); i++) {
+            assertTrue(history.estimate(DurationHistory.caseId(shard.get(i - 1).get()))
+                    >= history.estimate(DurationHistory.caseId(shard.get(i).get())));
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package ru.yandexmarket;
 
+import helpers.CaptureStatistics;
 import helpers.Driver;
+import helpers.DurationRecorder;
+import helpers.HangWatchdogExtension;
+import helpers.JfrRecording;
+import helpers.LazyElement;
+import helpers.LocatorChain;
+import helpers.PooledHttpClientFactory;
+import helpers.ShardExecutionCondition;
+import helpers.StartupReport;
+import helpers.Waiter;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.openqa.selenium.WebDriver;
 
+import static helpers.Properties.testProperties;
+
 /**
  * Базовый класс для UI-тестов Яндекс Маркета.
  *
@@ -12,9 +26,14 @@ import org.openqa.selenium.WebDriver;
  * перед и после выполнения каждого теста.
  * Все тестовые классы должны наследоваться от этого класса,
  * чтобы использовать единый механизм создания и закрытия браузера.
+ * Длительность каждого набора данных записывается {@link DurationRecorder}
+ * для распределения наборов по шардам, а тест без наборов в текущем шарде
+ * пропускается {@link ShardExecutionCondition}.
+ * Зависший тест или шаг прерывается {@link HangWatchdogExtension} с диагностикой в отчёте.
  *
  * @author Сергей Лужин
  */
+@ExtendWith({DurationRecorder.class, ShardExecutionCondition.class, HangWatchdogExtension.class})
 public class BaseTests {
 
     /**
@@ -24,6 +43,20 @@ public class BaseTests {
      */
     protected WebDriver driver;
 
+    /**
+     * Метод, выполняемый один раз перед тестами класса.
+     *
+     * Запускает запись JFR, если она запрошена профилем Maven {@code jfr},
+     * и записывает время старта JVM через {@link StartupReport}, если замер включён (профиль {@code appcds}).
+     *
+     * @author Сергей Лужин
+     */
+    @BeforeAll
+    public static void beforeAll() {
+        StartupReport.recordOnce();
+        JfrRecording.startIfRequested();
+    }
+
     /**
      * Метод, выполняемый перед каждым тестом.
      *
@@ -41,12 +74,24 @@ public class BaseTests {
     /**
      * Метод, выполняемый после каждого теста.
      *
-     * Завершает работу WebDriver, закрывая браузер.
+     * Выводит статистику ожиданий (пул HTTP-соединений — только для драйвера remote),
+     * сохраняет статистику вариантов локаторов через {@link LocatorChain#flush()}
+     * и завершает работу WebDriver через {@link Driver#quit()}.
      *
      * @author Сергей Лужин
      */
     @AfterEach
     public void after() {
-        driver.quit();
+        System.out.println(Waiter.statisticsReport());
+        if ("remote".equals(testProperties.driverBackend())) {
+            System.out.println(PooledHttpClientFactory.statisticsReport());
+        }
+        System.out.println(CaptureStatistics.report());
+        System.out.println(LazyElement.statisticsReport());
+        CaptureStatistics.reset();
+        LazyElement.resetStatistics();
+        Waiter.resetStatistics();
+        LocatorChain.flush();
+        Driver.quit();
     }
 }
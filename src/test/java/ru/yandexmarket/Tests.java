@@ -1,5 +1,7 @@
 package ru.yandexmarket;
 
+import helpers.Checkpoint;
+import helpers.ProductSnapshotStore;
 import io.qameta.allure.Feature;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -27,10 +29,15 @@ public class Tests extends BaseTests {
      * выбирает категорию и подкатегорию,
      * проверяет заголовок страницы,
      * применяет фильтры по цене и брендам,
+     * сохраняет снимок товаров и сравнивает его с предыдущим запуском,
      * запоминает один из товаров,
-     * выполняет поиск по его названию
+     * выполняет поиск по его названию, собирая выдачу только до нахождения этого товара,
      * и выполняет набор софт проверок по результатам.
      *
+     * После каждого шага сохраняется контрольная точка {@link Checkpoint}:
+     * при повторном запуске после сбоя браузера выполненные шаги пропускаются.
+     * После успешного прохождения или упавшей проверки контрольная точка удаляется.
+     *
      * @param category              категория каталога
      * @param subcategory           подкатегория каталога
      * @param minPrice              минимальная цена фильтра
@@ -46,16 +53,30 @@ public class Tests extends BaseTests {
     @ParameterizedTest(name = "{displayName}: {arguments}")
     @MethodSource("helpers.DataProvider#providerYMtestCatalog")
     public void testYandexMarketCatalog(String category, String subcategory, int minPrice, int maxPrice, List<String> brands, int indexOfCheckedElement, int checkedProductsAmount){
-        openSite(testProperties.yandexMarketUrl());
-        YandexMarketPage yandexMarketBeforeSearch = new YandexMarketPage();
-        chooseCategory(category, subcategory, yandexMarketBeforeSearch);
-        checkPageTitle(subcategory);
-        setFilters(minPrice, maxPrice, brands, yandexMarketBeforeSearch);
-        getAllProductCards(yandexMarketBeforeSearch);
-        goBySearchQuery(yandexMarketBeforeSearch.productsOnPage.get(indexOfCheckedElement).getTitle(), yandexMarketBeforeSearch);
-        YandexMarketPage yandexMarketAfterSearch = new YandexMarketPage();
-        getAllProductCards(yandexMarketAfterSearch);
-        runChecksSoftly(yandexMarketBeforeSearch, yandexMarketAfterSearch, checkedProductsAmount,minPrice, maxPrice, brands, indexOfCheckedElement);
+        Checkpoint checkpoint = Checkpoint.load(ProductSnapshotStore.key(category, subcategory, minPrice, maxPrice, brands));
+        Throwable failure = null;
+        try {
+            resumeFromCheckpoint(checkpoint);
+
+            checkpoint.step(1, () -> openSite(testProperties.yandexMarketUrl()));
+            YandexMarketPage yandexMarketBeforeSearch = new YandexMarketPage();
+            checkpoint.track("beforeSearch", yandexMarketBeforeSearch.productsOnPage);
+            checkpoint.step(2, () -> chooseCategory(category, subcategory, yandexMarketBeforeSearch));
+            checkpoint.step(3, () -> checkPageTitle(subcategory));
+            checkpoint.step(4, () -> setFilters(minPrice, maxPrice, brands, yandexMarketBeforeSearch));
+            checkpoint.step(5, () -> getAllProductCards(yandexMarketBeforeSearch));
+            checkpoint.step(6, () -> saveProductsSnapshot(category, subcategory, minPrice, maxPrice, brands, yandexMarketBeforeSearch));
+            checkpoint.step(7, () -> goBySearchQuery(yandexMarketBeforeSearch.productsOnPage.get(indexOfCheckedElement).getTitle(), yandexMarketBeforeSearch));
+            YandexMarketPage yandexMarketAfterSearch = new YandexMarketPage();
+            checkpoint.track("afterSearch", yandexMarketAfterSearch.productsOnPage);
+            checkpoint.step(8, () -> getProductCardsUntilFound(yandexMarketBeforeSearch.productsOnPage.get(indexOfCheckedElement), yandexMarketAfterSearch));
+            runChecksSoftly(yandexMarketBeforeSearch, yandexMarketAfterSearch, checkedProductsAmount,minPrice, maxPrice, brands, indexOfCheckedElement);
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            checkpoint.finish(failure);
+        }
     }
 
 }